@@ -0,0 +1,102 @@
+package com.java.functional.ch02_collections;
+
+import static java.util.stream.Collectors.joining;
+
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/** The list operations of {@link UsingCollections} over {@code size} random names. */
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Xmx12g")
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class UsingCollectionsBenchmark {
+  @Param({"1000", "100000", "10000000", "100000000"})
+  public int size;
+
+  @Param({"false", "true"})
+  public boolean parallel;
+
+  private List<String> names;
+  private PrefixIndex index;
+
+  @Setup
+  public void setUp() {
+    final Random random = new Random(42);
+    names = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      final StringBuilder name = new StringBuilder().append((char) ('A' + random.nextInt(26)));
+      for (int length = 3 + random.nextInt(6); length > 0; length--) {
+        name.append((char) ('a' + random.nextInt(26)));
+      }
+      names.add(name.toString());
+    }
+    index = PrefixIndex.of(names);
+  }
+
+  private Stream<String> stream() {
+    return parallel ? names.parallelStream() : names.stream();
+  }
+
+  @Benchmark
+  public List<String> transform() {
+    return stream().map(String::toUpperCase).collect(Collectors.toList());
+  }
+
+  @Benchmark
+  public List<String> filter() {
+    return stream().filter(name -> name.startsWith("N")).collect(Collectors.toList());
+  }
+
+  @Benchmark
+  public long filterPrefixIndex() {
+    return (parallel ? index.startsWith("N").parallel() : index.startsWith("N")).count();
+  }
+
+  @Benchmark
+  public Optional<String> pick() {
+    return stream().filter(name -> name.startsWith("Zz")).findFirst();
+  }
+
+  @Benchmark
+  public Optional<String> pickPrefixIndex() {
+    return index.findFirst("Zz");
+  }
+
+  @Benchmark
+  public int reduceSum() {
+    return stream().mapToInt(name -> name.length()).sum();
+  }
+
+  @Benchmark
+  public Optional<String> reduceLongest() {
+    return stream().reduce((name1, name2) -> name1.length() >= name2.length() ? name1 : name2);
+  }
+
+  @Benchmark
+  public String joinCollect() {
+    return stream().collect(joining(", "));
+  }
+
+  @Benchmark
+  public long joinToStream() {
+    final ChannelJoiner joiner = ChannelJoiner.joining(", ");
+    return (parallel ? joiner.parallel() : joiner).writeTo(names.stream(),
+        OutputStream.nullOutputStream());
+  }
+}
@@ -0,0 +1,135 @@
+package com.java.functional.ch03_strings_comparators_filters;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/** {@link CharScanning} against the {@code chars()} pipelines of {@link Strings}. */
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CharScanningBenchmark {
+  private static final String ALPHABET = "abcdefghijklmnopqrstuvwxyz 0123456789,.;\n";
+  private static final CharPredicate DIGIT = CharPredicate.asciiDigit();
+
+  @Param({"1000", "100000", "10000000", "100000000"})
+  public int size;
+
+  private String text;
+  private byte[] bytes;
+  private ByteBuffer heap;
+  private ByteBuffer direct;
+  private char[] target;
+
+  @Setup
+  public void setUp() {
+    final Random random = new Random(42);
+    final char[] chars = new char[size];
+    for (int i = 0; i < size; i++) {
+      chars[i] = ALPHABET.charAt(random.nextInt(ALPHABET.length()));
+    }
+    // one digit-free run up front, so indexOf has to scan the first half
+    for (int i = 0; i < size / 2; i++) {
+      if (Character.isDigit(chars[i])) {
+        chars[i] = 'x';
+      }
+    }
+    text = new String(chars);
+    bytes = text.getBytes(StandardCharsets.ISO_8859_1);
+    heap = ByteBuffer.wrap(bytes);
+    direct = ByteBuffer.allocateDirect(size).put(bytes).flip();
+    target = new char[size];
+  }
+
+  @Benchmark
+  public long countBoxedChars() {
+    return text.chars().mapToObj(ch -> Character.valueOf((char) ch))
+        .filter(Character::isDigit).count();
+  }
+
+  @Benchmark
+  public long countChars() {
+    return text.chars().filter(Character::isDigit).count();
+  }
+
+  @Benchmark
+  public int countMatchingCharSequence() {
+    return CharScanning.countMatching(text, DIGIT);
+  }
+
+  @Benchmark
+  public int countMatchingBytes() {
+    return CharScanning.countMatching(bytes, 0, bytes.length, DIGIT);
+  }
+
+  @Benchmark
+  public int countMatchingHeapBuffer() {
+    return CharScanning.countMatching(heap, DIGIT);
+  }
+
+  @Benchmark
+  public int countMatchingDirectBuffer() {
+    return CharScanning.countMatching(direct, DIGIT);
+  }
+
+  @Benchmark
+  public int countAsciiDigitsSwar() {
+    return CharScanning.countAsciiDigits(bytes, 0, bytes.length);
+  }
+
+  @Benchmark
+  public int indexOfChars() {
+    return IntStream.range(0, text.length())
+        .filter(i -> Character.isDigit(text.charAt(i)))
+        .findFirst().orElse(-1);
+  }
+
+  @Benchmark
+  public int indexOfMatchingCharSequence() {
+    return CharScanning.indexOfMatching(text, DIGIT, 0);
+  }
+
+  @Benchmark
+  public int indexOfMatchingBytes() {
+    return CharScanning.indexOfMatching(bytes, 0, bytes.length, DIGIT);
+  }
+
+  @Benchmark
+  public int indexOfMatchingDirectBuffer() {
+    return CharScanning.indexOfMatching(direct, DIGIT);
+  }
+
+  @Benchmark
+  public String filterChars() {
+    return text.chars().filter(Character::isDigit)
+        .collect(StringBuilder::new, StringBuilder::appendCodePoint, StringBuilder::append)
+        .toString();
+  }
+
+  @Benchmark
+  public String filterIntoCharSequence() {
+    return new String(target, 0, CharScanning.filterInto(text, DIGIT, target));
+  }
+
+  @Benchmark
+  public String filterIntoBytes() {
+    return new String(target, 0, CharScanning.filterInto(bytes, 0, bytes.length, DIGIT, target));
+  }
+
+  @Benchmark
+  public String filterIntoDirectBuffer() {
+    return new String(target, 0, CharScanning.filterInto(direct, DIGIT, target));
+  }
+}
@@ -0,0 +1,79 @@
+package com.java.functional.ch03_strings_comparators_filters;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BinaryOperator;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/** The collecting variants of {@link Collector}. */
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Xmx16g")
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CollectorBenchmark {
+  private static final Comparator<Person> BY_AGE = Comparator.comparing(Person::getAge);
+
+  @Param({"1000", "100000", "10000000", "100000000"})
+  public int size;
+
+  @Param({"false", "true"})
+  public boolean parallel;
+
+  private List<Person> people;
+
+  @Setup
+  public void setUp() {
+    people = CompareBenchmark.randomPeople(size);
+  }
+
+  private Stream<Person> stream() {
+    return parallel ? people.parallelStream() : people.stream();
+  }
+
+  @Benchmark
+  public List<Person> olderThan20() {
+    return stream().filter(p -> p.getAge() > 20).collect(Collectors.toList());
+  }
+
+  @Benchmark
+  public Map<Integer, List<Person>> peopleByAge() {
+    return stream().collect(Collectors.groupingBy(Person::getAge));
+  }
+
+  @Benchmark
+  public Map<Integer, List<String>> peopleNameByAge() {
+    return stream().collect(Collectors.groupingBy(Person::getAge,
+        Collectors.mapping(Person::getName, Collectors.toList())));
+  }
+
+  @Benchmark
+  public IntKeyMap<List<String>> peopleNameByAgeIntKeyed() {
+    return stream().collect(IntGroupingCollectors.groupingByInt(Person::getAge,
+        Collectors.mapping(Person::getName, Collectors.toList())));
+  }
+
+  @Benchmark
+  public Map<Character, Optional<Person>> oldestPersonOfEachLetter() {
+    return stream().collect(Collectors.groupingBy(person -> person.getName().charAt(1),
+        Collectors.reducing(BinaryOperator.maxBy(BY_AGE))));
+  }
+
+  @Benchmark
+  public Map<Character, List<Person>> oldestPeopleOfEachLetter() {
+    return stream().collect(
+        TopKCollectors.topKPerGroup(person -> person.getName().charAt(1), 2, BY_AGE));
+  }
+}
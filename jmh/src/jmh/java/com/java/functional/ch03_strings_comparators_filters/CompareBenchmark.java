@@ -0,0 +1,89 @@
+package com.java.functional.ch03_strings_comparators_filters;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/** The sorting variants of {@link Compare}. */
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Xmx16g")
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CompareBenchmark {
+  private static final Comparator<Person> COMPARE_ASCENDING = (p1, p2) -> p1.ageDifference(p2);
+  private static final Function<Person, String> BY_NAME = person -> person.getName();
+  private static final Function<Person, Integer> BY_AGE = person -> person.getAge();
+
+  @Param({"1000", "100000", "10000000", "100000000"})
+  public int size;
+
+  @Param({"false", "true"})
+  public boolean parallel;
+
+  private List<Person> people;
+
+  @Setup
+  public void setUp() {
+    people = randomPeople(size);
+  }
+
+  static List<Person> randomPeople(final int size) {
+    final Random random = new Random(42);
+    final List<Person> people = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      people.add(new Person("P" + random.nextInt(size), random.nextInt(100)));
+    }
+    return people;
+  }
+
+  private Stream<Person> stream() {
+    return parallel ? people.parallelStream() : people.stream();
+  }
+
+  @Benchmark
+  public List<Person> sortedLambda() {
+    return stream().sorted((p1, p2) -> p1.ageDifference(p2)).collect(Collectors.toList());
+  }
+
+  @Benchmark
+  public List<Person> sortedMethodReference() {
+    return stream().sorted(Person::ageDifference).collect(Collectors.toList());
+  }
+
+  @Benchmark
+  public List<Person> sortedReversed() {
+    return stream().sorted(COMPARE_ASCENDING.reversed()).collect(Collectors.toList());
+  }
+
+  @Benchmark
+  public List<Person> sortedComparingName() {
+    return stream().sorted(Comparator.comparing(BY_NAME)).collect(Collectors.toList());
+  }
+
+  @Benchmark
+  public List<Person> sortedComparingAgeThenName() {
+    return stream().sorted(Comparator.comparing(BY_AGE).thenComparing(BY_NAME))
+        .collect(Collectors.toList());
+  }
+
+  @Benchmark
+  public List<Person> keySortAgeThenName() {
+    final KeySort<Person> sort = KeySort.comparingInt(Person::getAge)
+        .thenComparing(Person::getName);
+    return (parallel ? sort.parallel() : sort).sort(people);
+  }
+}
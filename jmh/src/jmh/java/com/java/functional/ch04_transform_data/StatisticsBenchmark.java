@@ -0,0 +1,81 @@
+package com.java.functional.ch04_transform_data;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/** The evolutions of {@link Statistics}, each computing the average number of emails. */
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Xmx32g")
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class StatisticsBenchmark {
+  @Param({"1000", "100000", "10000000", "100000000"})
+  public int size;
+
+  @Param({"false", "true"})
+  public boolean parallel;
+
+  private List<Person> people;
+  private PersonTable table;
+
+  @Setup
+  public void setUp() {
+    final Random random = new Random(42);
+    final List<String> emails = List.of("a@example.com", "b@example.com", "c@example.com");
+    people = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      people.add(new Person("F" + random.nextInt(1000), "L" + random.nextInt(1000),
+          emails.subList(0, random.nextInt(emails.size() + 1))));
+    }
+    table = PersonTable.of(people);
+  }
+
+  private Stream<Person> stream() {
+    return parallel ? people.parallelStream() : people.stream();
+  }
+
+  @Benchmark
+  public double evolution1Sum() {
+    return stream().map(Person::emailAddress).mapToDouble(List::size).sum()
+        / (people.size() * 1.0);
+  }
+
+  @Benchmark
+  public double evolution2Average() {
+    return stream().map(Person::emailAddress).mapToDouble(List::size).average().orElse(0);
+  }
+
+  @Benchmark
+  public double evolution3AveragingDouble() {
+    return stream().collect(Collectors.averagingDouble(person -> person.emailAddress().size()));
+  }
+
+  @Benchmark
+  public double evolution4SummarizingDouble() {
+    return stream().collect(Collectors.summarizingDouble(person -> person.emailAddress().size()))
+        .getAverage();
+  }
+
+  @Benchmark
+  public SummaryStatistics evolution5SummaryStatistics() {
+    return stream().collect(SummaryStatistics.summarizing(person -> person.emailAddress().size()));
+  }
+
+  @Benchmark
+  public double evolution6PersonTable() {
+    return (parallel ? table.emailCounts().parallel() : table.emailCounts()).average().orElse(0);
+  }
+}
@@ -0,0 +1,80 @@
+package com.java.functional.ch05_designing_lambda;
+
+import com.java.functional.ch05_designing_lambda.Asset.AssetType;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * {@link AssetUtility#totalAssetValues}, sequential and parallel, against the batched and
+ * columnar totals.
+ */
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class AssetUtilityBenchmark {
+  @Param({"1000", "100000", "10000000", "100000000"})
+  public int size;
+
+  private List<Asset> assets;
+  private AssetBook book;
+
+  @Setup
+  public void setUp() {
+    final Random random = new Random(42);
+    assets = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      assets.add(new Asset(random.nextBoolean() ? AssetType.BOND : AssetType.STOCK,
+          random.nextInt(10_000)));
+    }
+    book = AssetBook.of(assets);
+  }
+
+  @State(Scope.Benchmark)
+  public static class Parallelism {
+    @Param({"false", "true"})
+    public boolean parallel;
+  }
+
+  @Benchmark
+  public long totalAssetValues(final Parallelism parallelism) {
+    return total(asset -> true, parallelism);
+  }
+
+  @Benchmark
+  public long totalBondValues(final Parallelism parallelism) {
+    return total(asset -> asset.getType() == AssetType.BOND, parallelism);
+  }
+
+  private long total(final Predicate<Asset> selector, final Parallelism parallelism) {
+    return parallelism.parallel
+        ? AssetUtility.parallelTotalAssetValues(assets, selector)
+        : AssetUtility.totalAssetValues(assets, selector);
+  }
+
+  @Benchmark
+  public long[] batchedTotals(final Parallelism parallelism) {
+    return QueryBatch.sumOf(assets,
+        List.of(asset -> true, asset -> asset.getType() == AssetType.BOND,
+            asset -> asset.getType() == AssetType.STOCK),
+        Asset::getValue, parallelism.parallel);
+  }
+
+  @Benchmark
+  public EnumMap<AssetType, Long> assetBookTotalsByType(final Parallelism parallelism) {
+    return parallelism.parallel ? book.parallelTotalsByType() : book.totalsByType();
+  }
+}
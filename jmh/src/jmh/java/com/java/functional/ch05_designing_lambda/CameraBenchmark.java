@@ -0,0 +1,70 @@
+package com.java.functional.ch05_designing_lambda;
+
+import java.awt.Color;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * {@link Camera} capturing frames of {@code size} pixels, one {@code Color} at a time and through
+ * the packed parallel path, with plain and lookup-table filters.
+ */
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@SuppressWarnings("unchecked")
+public class CameraBenchmark {
+  private static final int WIDTH = 1000;
+
+  @Param({"1000", "100000", "10000000", "100000000"})
+  public int size;
+
+  private int height;
+  private int[] frame;
+  private int[] target;
+  private Camera colorCamera;
+  private Camera channelCamera;
+
+  @Setup
+  public void setUp() {
+    height = (size + WIDTH - 1) / WIDTH;
+    frame = new Random(42).ints(WIDTH * height).toArray();
+    target = new int[frame.length];
+    colorCamera = new Camera();
+    colorCamera.setFilters(Color::brighter, Color::darker);
+    channelCamera = new Camera();
+    channelCamera.setPixelFilters(ChannelFilter.scale(1.2), ChannelFilter.gamma(0.8),
+        ChannelFilter.mask(true, true, false));
+  }
+
+  @Benchmark
+  public int[] captureColorByColor() {
+    final Function<Color, Color> capture = colorCamera::capture;
+    for (int i = 0; i < frame.length; i++) {
+      target[i] = capture.apply(new Color(frame[i], true)).getRGB();
+    }
+    return target;
+  }
+
+  @Benchmark
+  public int[] capturePacked() {
+    colorCamera.capture(frame, target, WIDTH, height);
+    return target;
+  }
+
+  @Benchmark
+  public int[] captureLookupTables() {
+    channelCamera.capture(frame, target, WIDTH, height);
+    return target;
+  }
+}
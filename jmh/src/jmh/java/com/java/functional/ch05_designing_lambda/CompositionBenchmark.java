@@ -0,0 +1,80 @@
+package com.java.functional.ch05_designing_lambda;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.IntUnaryOperator;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/** {@link Composition} against nested {@code andThen} chains of 1 to 1024 stages. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CompositionBenchmark {
+  @Param({"1", "2", "4", "8", "16", "32", "64", "256", "512", "1024"})
+  public int stages;
+
+  private IntUnaryOperator nested;
+  private IntUnaryOperator array;
+  private IntUnaryOperator generated;
+  private Function<Integer, Integer> nestedFunction;
+  private Function<Integer, Integer> arrayFunction;
+  private Function<Integer, Integer> generatedFunction;
+  private int value;
+
+  @Setup
+  public void setUp() {
+    final IntUnaryOperator[] operators = FunctionChains.operators(stages);
+    nested = Stream.of(operators).reduce((first, next) -> first.andThen(next)).orElseThrow();
+    array = Composition.intArrayChain(operators);
+    generated = Composition.ofInts(operators);
+
+    final List<Function<Integer, Integer>> functions = Arrays.stream(operators)
+        .map(operator -> (Function<Integer, Integer>) operator::applyAsInt)
+        .collect(Collectors.toList());
+    nestedFunction = functions.stream()
+        .reduce((first, next) -> first.andThen(next)).orElseThrow();
+    arrayFunction = Composition.arrayChain(functions);
+    generatedFunction = Composition.of(functions);
+  }
+
+  @Benchmark
+  public int nestedAndThen() {
+    return nested.applyAsInt(value++);
+  }
+
+  @Benchmark
+  public int arrayChain() {
+    return array.applyAsInt(value++);
+  }
+
+  @Benchmark
+  public int generatedChain() {
+    return generated.applyAsInt(value++);
+  }
+
+  @Benchmark
+  public Integer nestedFunctionAndThen() {
+    return nestedFunction.apply(value++);
+  }
+
+  @Benchmark
+  public Integer arrayFunctionChain() {
+    return arrayFunction.apply(value++);
+  }
+
+  @Benchmark
+  public Integer generatedFunctionChain() {
+    return generatedFunction.apply(value++);
+  }
+}
@@ -0,0 +1,100 @@
+package com.java.functional.ch05_designing_lambda;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * {@link FixedPointNAV} against the {@code BigDecimal} path of {@link CalculateNAV}, valuing
+ * {@code size} positions through each engine's price finder and from price columns.
+ */
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Xmx12g")
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FixedPointNAVBenchmark {
+  private static final int TICKERS = 1000;
+
+  @Param({"1000", "100000", "10000000", "100000000"})
+  public int size;
+
+  private String[] tickers;
+  private int[] tickerOf;
+  private int[] shares;
+  private BigDecimal[] prices;
+  private long[] priceMicros;
+  private CalculateNAV bigDecimalNav;
+  private FixedPointNAV fixedPointNav;
+
+  @Setup
+  public void setUp() {
+    final Random random = new Random(42);
+    final Map<String, BigDecimal> pricesByTicker = new HashMap<>();
+    final Map<String, Long> microsByTicker = new HashMap<>();
+    tickers = new String[TICKERS];
+    for (int i = 0; i < TICKERS; i++) {
+      tickers[i] = String.format("T%03d", i);
+      final BigDecimal price = BigDecimal.valueOf(random.nextInt(10_000_000), 4);
+      pricesByTicker.put(tickers[i], price);
+      microsByTicker.put(tickers[i], FixedPointNAV.toMicros(price, RoundingMode.HALF_EVEN));
+    }
+    bigDecimalNav = new CalculateNAV(pricesByTicker::get);
+    fixedPointNav = new FixedPointNAV(microsByTicker::get);
+
+    tickerOf = new int[size];
+    shares = new int[size];
+    prices = new BigDecimal[size];
+    priceMicros = new long[size];
+    for (int i = 0; i < size; i++) {
+      tickerOf[i] = random.nextInt(TICKERS);
+      shares[i] = random.nextInt(1_000);
+      prices[i] = BigDecimal.valueOf(random.nextInt(10_000_000), 4);
+      priceMicros[i] = FixedPointNAV.toMicros(prices[i], RoundingMode.HALF_EVEN);
+    }
+  }
+
+  @Benchmark
+  public BigDecimal bigDecimalStockWorth() {
+    BigDecimal total = BigDecimal.ZERO;
+    for (int i = 0; i < size; i++) {
+      total = total.add(bigDecimalNav.calculateStockWorth(tickers[tickerOf[i]], shares[i]));
+    }
+    return total;
+  }
+
+  @Benchmark
+  public long fixedPointStockWorth() {
+    long total = 0;
+    for (int i = 0; i < size; i++) {
+      total = Math.addExact(total,
+          fixedPointNav.calculateStockWorth(tickers[tickerOf[i]], shares[i]));
+    }
+    return total;
+  }
+
+  @Benchmark
+  public BigDecimal bigDecimalColumns() {
+    BigDecimal total = BigDecimal.ZERO;
+    for (int i = 0; i < size; i++) {
+      total = total.add(prices[i].multiply(BigDecimal.valueOf(shares[i])));
+    }
+    return total;
+  }
+
+  @Benchmark
+  public long fixedPointColumns() {
+    return FixedPointNAV.totalWorth(priceMicros, shares);
+  }
+}
@@ -0,0 +1,71 @@
+package com.java.functional.ch05_designing_lambda;
+
+import com.java.functional.ch05_designing_lambda.Asset.AssetType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/** The overhead of {@link PipelineProbe} on {@link AssetUtility#totalAssetValues}. */
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PipelineProbeBenchmark {
+  private static final Predicate<Asset> BONDS = asset -> asset.getType() == AssetType.BOND;
+
+  @Param({"1000", "100000", "10000000", "100000000"})
+  public int size;
+
+  private List<Asset> assets;
+
+  @Setup
+  public void setUp() {
+    final Random random = new Random(42);
+    assets = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      assets.add(new Asset(random.nextBoolean() ? AssetType.BOND : AssetType.STOCK,
+          random.nextInt(10_000)));
+    }
+  }
+
+  /** Only the instrumented pipeline depends on the sampling rate. */
+  @State(Scope.Benchmark)
+  public static class Sampling {
+    @Param({"1", "64", "1024"})
+    public int sampleEvery;
+
+    private PipelineProbe probe;
+
+    @Setup
+    public void setUp() {
+      probe = PipelineProbe.of("totalAssetValues", MetricsRegistry.inMemory())
+          .sampleEvery(sampleEvery);
+    }
+  }
+
+  @Benchmark
+  public long uninstrumented() {
+    return AssetUtility.totalAssetValues(assets, BONDS);
+  }
+
+  @Benchmark
+  public long disabledProbe() {
+    return AssetUtility.totalAssetValues(assets, BONDS, PipelineProbe.disabled());
+  }
+
+  @Benchmark
+  public long instrumented(final Sampling sampling) {
+    return AssetUtility.totalAssetValues(assets, BONDS, sampling.probe);
+  }
+}
@@ -0,0 +1,85 @@
+package com.java.functional.ch05_designing_lambda;
+
+import com.java.functional.ch05_designing_lambda.Asset.AssetType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/** Compiled {@link Query} pipelines against the equivalent {@code Stream} pipelines. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class QueryBenchmark {
+  @Param({"16", "256", "100000"})
+  public int size;
+
+  private List<Asset> assets;
+  private int[] prices;
+  private ToLongFunction<List<Asset>> bondTotal;
+  private Function<List<Asset>, List<Integer>> largeValues;
+  private ToIntFunction<int[]> discounted;
+
+  @Setup
+  public void setUp() {
+    final Random random = new Random(42);
+    assets = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      assets.add(new Asset(random.nextBoolean() ? AssetType.BOND : AssetType.STOCK,
+          random.nextInt(10_000)));
+    }
+    prices = random.ints(size, 1, 100).toArray();
+    bondTotal = AssetUtility.compiledTotalAssetValues(asset -> asset.getType() == AssetType.BOND);
+    largeValues = Query.from(Asset.class)
+        .filter(asset -> asset.getValue() > 5_000)
+        .map(Asset::getValue)
+        .toList();
+    discounted = Query.ints().filter(price -> price > 20).map(price -> price * 9 / 10).sum();
+  }
+
+  @Benchmark
+  public long streamBondTotal() {
+    return AssetUtility.totalAssetValues(assets, asset -> asset.getType() == AssetType.BOND);
+  }
+
+  @Benchmark
+  public long queryBondTotal() {
+    return bondTotal.applyAsLong(assets);
+  }
+
+  @Benchmark
+  public List<Integer> streamLargeValues() {
+    return assets.stream()
+        .filter(asset -> asset.getValue() > 5_000)
+        .map(Asset::getValue)
+        .collect(Collectors.toList());
+  }
+
+  @Benchmark
+  public List<Integer> queryLargeValues() {
+    return largeValues.apply(assets);
+  }
+
+  @Benchmark
+  public int streamDiscounted() {
+    return IntStream.of(prices).filter(price -> price > 20).map(price -> price * 9 / 10).sum();
+  }
+
+  @Benchmark
+  public int queryDiscounted() {
+    return discounted.applyAsInt(prices);
+  }
+}
@@ -0,0 +1,94 @@
+package com.java.functional;
+
+import com.java.functional.ch03_strings_comparators_filters.Person;
+import com.java.functional.ch03_strings_comparators_filters.TopKCollectors;
+import com.java.functional.ch05_designing_lambda.Asset;
+import com.java.functional.ch05_designing_lambda.Asset.AssetType;
+import com.java.functional.ingest.BinaryFormat;
+import com.java.functional.ingest.CsvIngest;
+import com.java.functional.ingest.IngestThroughput;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.IntSummaryStatistics;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/** Runs the book's analyses over CSV or binary exports. */
+public class App {
+  private static final String USAGE = String.join("\n",
+      "usage: App <command> [arguments]",
+      "  assets <file.csv|file.bin>                   totals by asset type",
+      "  people <file.csv|file.bin>                   age statistics and oldest per letter",
+      "  convert assets|people <in.csv> <out.bin>     write the compact binary format",
+      "  bench [rows]                                 ingest throughput in rows/s");
+
+  public static void main(String[] args) throws IOException {
+    if (args.length == 0) {
+      System.err.println(USAGE);
+      System.exit(2);
+    }
+    final long start = System.nanoTime();
+    switch (args[0]) {
+      case "assets" -> assets(path(args, 1));
+      case "people" -> people(path(args, 1));
+      case "convert" -> convert(argument(args, 1), path(args, 2), path(args, 3));
+      case "bench" -> IngestThroughput.main(
+          args.length > 1 ? new String[] {args[1]} : new String[0]);
+      default -> {
+        System.err.println(USAGE);
+        System.exit(2);
+      }
+    }
+    System.err.println(String.format("Done in %d ms", (System.nanoTime() - start) / 1_000_000));
+  }
+
+  private static void assets(final Path file) {
+    final Map<AssetType, Long> totals = isBinary(file)
+        ? BinaryFormat.readAssets(file).totalsByType()
+        : CsvIngest.csv().parallel().assets(file).collect(Collectors.groupingBy(
+            Asset::getType, () -> new EnumMap<>(AssetType.class),
+            Collectors.summingLong(Asset::getValue)));
+    totals.forEach((type, total) -> System.out.println(String.format("%-6s %d", type, total)));
+  }
+
+  private static void people(final Path file) {
+    final List<Person> people = (isBinary(file)
+        ? BinaryFormat.readPeople(file)
+        : CsvIngest.csv().parallel().people(file)).collect(Collectors.toList());
+    final IntSummaryStatistics ages =
+        people.parallelStream().mapToInt(Person::getAge).summaryStatistics();
+    System.out.println(String.format("%d people, age %d to %d, average %.2f", ages.getCount(),
+        ages.getMin(), ages.getMax(), ages.getAverage()));
+    people.parallelStream()
+        .collect(TopKCollectors.topKPerGroup(person -> person.getName().charAt(0), 1,
+            Comparator.comparingInt(Person::getAge)))
+        .forEach((letter, oldest) -> System.out.println(letter + " " + oldest.get(0)));
+  }
+
+  private static void convert(final String kind, final Path csv, final Path binary) {
+    final long rows = switch (kind) {
+      case "assets" -> BinaryFormat.writeAssets(binary, CsvIngest.csv().assets(csv));
+      case "people" -> BinaryFormat.writePeople(binary, CsvIngest.csv().people(csv));
+      default -> throw new IllegalArgumentException("Unknown kind: " + kind + "\n" + USAGE);
+    };
+    System.out.println(String.format("Wrote %d rows to %s", rows, binary));
+  }
+
+  private static boolean isBinary(final Path file) {
+    return file.getFileName().toString().endsWith(".bin");
+  }
+
+  private static Path path(final String[] args, final int index) {
+    return Path.of(argument(args, index));
+  }
+
+  private static String argument(final String[] args, final int index) {
+    if (index >= args.length) {
+      throw new IllegalArgumentException("Missing argument\n" + USAGE);
+    }
+    return args[index];
+  }
+}
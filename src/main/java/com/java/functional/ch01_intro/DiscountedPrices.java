@@ -0,0 +1,183 @@
+package com.java.functional.ch01_intro;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.stream.IntStream;
+
+/**
+ * The filter/discount/sum of {@link Lambda#totalOfDiscountedPrices()} over primitive price
+ * columns, with exact fixed-point results.
+ *
+ * <p>Prices above the threshold are summed without a branch in the loop:
+ * {@code (threshold - price) >> 63} is all ones exactly when the price is above the threshold,
+ * and masks the price in or out. The range and overflow checks on {@code long} columns run once
+ * per chunk, after its loop.
+ * The discount is applied once to the sum as a whole percentage, so the total has two decimal
+ * places more than the prices and no rounding. The JDK 17 toolchain has no Vector API outside
+ * the incubator, so the loops are left for the JIT to unroll.
+ *
+ * <p>Tick files are raw little-endian {@code int} prices, as written by {@link #writeTicks}, and
+ * are read through memory-mapped chunks.
+ */
+public class DiscountedPrices {
+    private static final int CHUNK = 1 << 22;
+    private static final int LOW_BITS = 31;
+    private static final long LOW_MASK = (1L << LOW_BITS) - 1;
+
+    private final int threshold;
+    private final int percentPaid;
+    private final boolean parallel;
+
+    /** Keeps prices above {@code threshold} and charges {@code percentPaid} percent of them. */
+    public DiscountedPrices(final int threshold, final int percentPaid) {
+        this(threshold, percentPaid, false);
+    }
+
+    private DiscountedPrices(final int threshold, final int percentPaid, final boolean parallel) {
+        if (percentPaid < 0) {
+            throw new IllegalArgumentException("percentPaid must not be negative: " + percentPaid);
+        }
+        this.threshold = threshold;
+        this.percentPaid = percentPaid;
+        this.parallel = parallel;
+    }
+
+    /** Sums chunks of the column or file on the common pool. */
+    public DiscountedPrices parallel() {
+        return new DiscountedPrices(threshold, percentPaid, true);
+    }
+
+    public BigDecimal total(final int[] prices) {
+        return discount(sumAboveThreshold(prices));
+    }
+
+    public BigDecimal total(final long[] prices) {
+        return discount(sumAboveThreshold(prices));
+    }
+
+    public BigDecimal total(final Path ticks) {
+        return discount(sumAboveThreshold(ticks));
+    }
+
+    public long sumAboveThreshold(final int[] prices) {
+        return chunks(prices.length).mapToLong(chunk -> sum(prices, chunk * CHUNK,
+            end(prices.length, chunk))).sum();
+    }
+
+    /** Prices in a {@code long} column must be in {@code [0, 2^62)}; sum overflow is an error. */
+    public long sumAboveThreshold(final long[] prices) {
+        return chunks(prices.length).mapToLong(chunk -> sum(prices, chunk * CHUNK,
+            end(prices.length, chunk))).reduce(0, Math::addExact);
+    }
+
+    public long sumAboveThreshold(final Path ticks) {
+        try (FileChannel channel = FileChannel.open(ticks, StandardOpenOption.READ)) {
+            final long count = channel.size() / Integer.BYTES;
+            final int chunks = (int) ((count + CHUNK - 1) / CHUNK);
+            final IntStream indexes = IntStream.range(0, chunks);
+            return (parallel ? indexes.parallel() : indexes).mapToLong(chunk -> {
+                final long first = (long) chunk * CHUNK;
+                return sum(map(channel, first, (int) Math.min(CHUNK, count - first)));
+            }).sum();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public BigDecimal discount(final long sum) {
+        return BigDecimal.valueOf(Math.multiplyExact(sum, percentPaid), 2);
+    }
+
+    public static void writeTicks(final Path ticks, final int[] prices) {
+        try (FileChannel channel = FileChannel.open(ticks, StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            final ByteBuffer buffer =
+                ByteBuffer.allocateDirect(CHUNK).order(ByteOrder.LITTLE_ENDIAN);
+            for (int i = 0; i < prices.length; ) {
+                buffer.clear();
+                final IntBuffer ints = buffer.asIntBuffer();
+                final int length = Math.min(ints.capacity(), prices.length - i);
+                ints.put(prices, i, length);
+                buffer.limit(length * Integer.BYTES);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                i += length;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private IntStream chunks(final int length) {
+        final IntStream chunks = IntStream.range(0, (int) (((long) length + CHUNK - 1) / CHUNK));
+        return parallel ? chunks.parallel() : chunks;
+    }
+
+    private static int end(final int length, final int chunk) {
+        return (int) Math.min(length, (long) chunk * CHUNK + CHUNK);
+    }
+
+    private long sum(final int[] prices, final int from, final int to) {
+        final long limit = threshold;
+        long sum = 0;
+        for (int i = from; i < to; i++) {
+            final long price = prices[i];
+            sum += price & ((limit - price) >> 63);
+        }
+        return sum;
+    }
+
+    /**
+     * Sums the low and high 31 bits of the kept prices separately, so neither half can overflow
+     * within a chunk, and checks the range and the combined sum once the loop is done.
+     */
+    private long sum(final long[] prices, final int from, final int to) {
+        final long limit = threshold;
+        long bits = 0;
+        long low = 0;
+        long high = 0;
+        for (int i = from; i < to; i++) {
+            final long price = prices[i];
+            final long kept = price & ((limit - price) >> 63);
+            bits |= price;
+            low += kept & LOW_MASK;
+            high += kept >>> LOW_BITS;
+        }
+        if (bits >>> 62 != 0) {
+            for (int i = from; ; i++) {
+                if (prices[i] >>> 62 != 0) {
+                    throw new IllegalArgumentException("Price out of range at " + i + ": "
+                        + prices[i]);
+                }
+            }
+        }
+        return Math.addExact(Math.multiplyExact(high, 1L << LOW_BITS), low);
+    }
+
+    private long sum(final IntBuffer prices) {
+        final long limit = threshold;
+        long sum = 0;
+        for (int i = 0, length = prices.limit(); i < length; i++) {
+            final long price = prices.get(i);
+            sum += price & ((limit - price) >> 63);
+        }
+        return sum;
+    }
+
+    private static IntBuffer map(final FileChannel channel, final long first, final int count) {
+        try {
+            return channel.map(FileChannel.MapMode.READ_ONLY, first * Integer.BYTES,
+                (long) count * Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
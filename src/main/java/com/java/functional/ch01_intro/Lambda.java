@@ -3,6 +3,7 @@
  */
 package com.java.functional.ch01_intro;
 
+import java.math.BigDecimal;
 import java.util.Arrays;
 import java.util.List;
 
@@ -17,7 +18,14 @@ public class Lambda {
         System.out.printf("Total of discounted prices: %.2f%n", total);
     }
 
+    public void totalOfDiscountedPricesExactly() {
+        final int[] prices = {10, 30, 17, 20, 18, 45, 12};
+        final BigDecimal total = new DiscountedPrices(20, 90).total(prices);
+        System.out.printf("Total of discounted prices: %s%n", total);
+    }
+
     public static void main(String[] args) {
         new Lambda().totalOfDiscountedPrices();
+        new Lambda().totalOfDiscountedPricesExactly();
     }
 }
@@ -0,0 +1,59 @@
+package com.java.functional.ch01_intro;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public class PricePipeline {
+    public static void main(String[] args) throws IOException {
+        // 1B ticks need a 4 GB int[] and about 8 GB more for the long[] column and boxed list;
+        // pass a smaller count or raise -Xmx accordingly
+        final int count = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+        final Random random = new Random(42);
+        final int[] prices = IntStream.generate(() -> random.nextInt(50)).limit(count).toArray();
+        final long[] longPrices = IntStream.of(prices).asLongStream().toArray();
+        final List<Integer> boxed = IntStream.of(prices).boxed().collect(Collectors.toList());
+        final Path ticks = Files.createTempFile("ticks", ".bin");
+        DiscountedPrices.writeTicks(ticks, prices);
+
+        final DiscountedPrices discounted = new DiscountedPrices(20, 90);
+        final DiscountedPrices parallel = discounted.parallel();
+        try {
+            for (int run = 0; run < 3; run++) {
+                final double stream = time("stream filter/mapToDouble/sum", count,
+                    () -> boxed.stream().filter(p -> p > 20).mapToDouble(p -> p * 0.9).sum());
+                final BigDecimal columns = time("int[] branch-free", count,
+                    () -> discounted.total(prices));
+                final BigDecimal parallelColumns = time("int[] branch-free (parallel)", count,
+                    () -> parallel.total(prices));
+                final BigDecimal longColumns = time("long[] branch-free, exact", count,
+                    () -> discounted.total(longPrices));
+                final BigDecimal mapped = time("mapped tick file", count,
+                    () -> discounted.total(ticks));
+                final BigDecimal parallelMapped = time("mapped tick file (parallel)", count,
+                    () -> parallel.total(ticks));
+                System.out.println(String.format("Run %d: %s (double: %.2f) consistent: %b%n",
+                    run, columns, stream, columns.equals(parallelColumns)
+                        && columns.equals(longColumns) && columns.equals(mapped)
+                        && columns.equals(parallelMapped)));
+            }
+        } finally {
+            Files.delete(ticks);
+        }
+    }
+
+    private static <R> R time(final String label, final int count, final Supplier<R> total) {
+        final long start = System.nanoTime();
+        final R result = total.get();
+        final long nanos = System.nanoTime() - start;
+        System.out.println(
+                String.format("%-36s %8.1f M ticks/s", label, count / 1e3 / nanos * 1e6));
+        return result;
+    }
+}
@@ -0,0 +1,259 @@
+package com.java.functional.ch02_collections;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
+
+/**
+ * Like {@code Collectors.joining}, but writes the result to a channel as it goes instead of
+ * building one {@code String}. Elements are encoded straight into a direct buffer that is reused
+ * per thread and written out whenever it fills up, so a blocking channel slows the stream down
+ * rather than letting output pile up on the heap.
+ *
+ * <pre>
+ * ChannelJoiner.joining(", ").withPrefixAndSuffix("[", "]").writeTo(names, channel);
+ * </pre>
+ *
+ * <p>In {@link #parallel()} mode batches of elements are encoded on the common pool and written
+ * in encounter order; at most a few batches per core are held at a time.
+ */
+public final class ChannelJoiner {
+  private static final int PARALLEL_BATCH = 4096;
+  private static final ThreadLocal<ByteBuffer> BUFFERS = new ThreadLocal<>();
+
+  private final CharSequence delimiter;
+  private final CharSequence prefix;
+  private final CharSequence suffix;
+  private final Charset charset;
+  private final int bufferSize;
+  private final boolean parallel;
+
+  private ChannelJoiner(final CharSequence delimiter, final CharSequence prefix,
+      final CharSequence suffix, final Charset charset, final int bufferSize,
+      final boolean parallel) {
+    this.delimiter = delimiter;
+    this.prefix = prefix;
+    this.suffix = suffix;
+    this.charset = charset;
+    this.bufferSize = bufferSize;
+    this.parallel = parallel;
+  }
+
+  public static ChannelJoiner joining(final CharSequence delimiter) {
+    return new ChannelJoiner(delimiter, "", "", StandardCharsets.UTF_8, 64 * 1024, false);
+  }
+
+  public ChannelJoiner withPrefixAndSuffix(final CharSequence prefix, final CharSequence suffix) {
+    return new ChannelJoiner(delimiter, prefix, suffix, charset, bufferSize, parallel);
+  }
+
+  public ChannelJoiner charset(final Charset charset) {
+    return new ChannelJoiner(delimiter, prefix, suffix, charset, bufferSize, parallel);
+  }
+
+  /** Bytes buffered before each write to the channel. */
+  public ChannelJoiner bufferSize(final int bufferSize) {
+    if (bufferSize < 16) {
+      throw new IllegalArgumentException("bufferSize must be at least 16: " + bufferSize);
+    }
+    return new ChannelJoiner(delimiter, prefix, suffix, charset, bufferSize, parallel);
+  }
+
+  public ChannelJoiner parallel() {
+    return new ChannelJoiner(delimiter, prefix, suffix, charset, bufferSize, true);
+  }
+
+  /** Writes the joined elements and returns the number of bytes written. */
+  public long writeTo(final Stream<? extends CharSequence> elements,
+      final WritableByteChannel channel) {
+    try {
+      return parallel ? writeParallel(elements, channel) : writeSequential(elements, channel);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /** Writes the joined elements and flushes {@code out}; does not close it. */
+  public long writeTo(final Stream<? extends CharSequence> elements, final OutputStream out) {
+    final long written = writeTo(elements, Channels.newChannel(out));
+    try {
+      out.flush();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return written;
+  }
+
+  private long writeSequential(final Stream<? extends CharSequence> elements,
+      final WritableByteChannel channel) throws IOException {
+    final Sink sink = new Sink(channel, buffer(), newEncoder());
+    sink.encode(prefix);
+    final Iterator<? extends CharSequence> iterator = elements.sequential().iterator();
+    for (boolean first = true; iterator.hasNext(); first = false) {
+      if (!first) {
+        sink.encode(delimiter);
+      }
+      sink.encode(iterator.next());
+    }
+    sink.encode(suffix);
+    return sink.finish();
+  }
+
+  private long writeParallel(final Stream<? extends CharSequence> elements,
+      final WritableByteChannel channel) throws IOException {
+    final Sink sink = new Sink(channel, buffer(), newEncoder());
+    sink.encode(prefix);
+    sink.flush();
+    final int window = 2 * ForkJoinPool.commonPool().getParallelism() + 1;
+    final ArrayDeque<CompletableFuture<ByteBuffer>> pending = new ArrayDeque<>();
+    final Iterator<? extends CharSequence> iterator = elements.sequential().iterator();
+    long written = 0;
+    boolean first = true;
+    while (iterator.hasNext()) {
+      final List<CharSequence> batch = new ArrayList<>(PARALLEL_BATCH);
+      while (batch.size() < PARALLEL_BATCH && iterator.hasNext()) {
+        batch.add(iterator.next());
+      }
+      final boolean leading = first;
+      first = false;
+      pending.add(CompletableFuture.supplyAsync(() -> encodeBatch(batch, leading)));
+      if (pending.size() >= window) {
+        written += writeFully(pending.poll().join(), channel);
+      }
+    }
+    while (!pending.isEmpty()) {
+      written += writeFully(pending.poll().join(), channel);
+    }
+    sink.encode(suffix);
+    return written + sink.finish();
+  }
+
+  private ByteBuffer encodeBatch(final List<CharSequence> batch, final boolean leading) {
+    final CharsetEncoder encoder = newEncoder();
+    ByteBuffer out = ByteBuffer.allocate(batch.size() * 16);
+    for (int i = 0; i < batch.size(); i++) {
+      if (i > 0 || !leading) {
+        out = encode(encoder, delimiter, out);
+      }
+      out = encode(encoder, batch.get(i), out);
+    }
+    return out.flip();
+  }
+
+  /** Encodes {@code text} into {@code out}, growing it as needed, and returns the buffer. */
+  private static ByteBuffer encode(final CharsetEncoder encoder, final CharSequence text,
+      ByteBuffer out) {
+    final CharBuffer in = CharBuffer.wrap(text);
+    encoder.reset();
+    boolean flushing = false;
+    while (true) {
+      final CoderResult result = flushing ? encoder.flush(out) : encoder.encode(in, out, true);
+      if (result.isOverflow()) {
+        out = ByteBuffer.allocate(out.capacity() * 2 + 16).put(out.flip());
+      } else if (result.isError()) {
+        throwUnchecked(result);
+      } else if (flushing) {
+        return out;
+      } else {
+        flushing = true;
+      }
+    }
+  }
+
+  private static long writeFully(final ByteBuffer bytes, final WritableByteChannel channel)
+      throws IOException {
+    long written = 0;
+    while (bytes.hasRemaining()) {
+      final int count = channel.write(bytes);
+      if (count == 0) {
+        Thread.onSpinWait();
+      }
+      written += count;
+    }
+    return written;
+  }
+
+  private static void throwUnchecked(final CoderResult result) {
+    try {
+      result.throwException();
+    } catch (CharacterCodingException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private CharsetEncoder newEncoder() {
+    return charset.newEncoder()
+        .onMalformedInput(CodingErrorAction.REPLACE)
+        .onUnmappableCharacter(CodingErrorAction.REPLACE);
+  }
+
+  private ByteBuffer buffer() {
+    ByteBuffer buffer = BUFFERS.get();
+    if (buffer == null || buffer.capacity() != bufferSize) {
+      buffer = ByteBuffer.allocateDirect(bufferSize);
+      BUFFERS.set(buffer);
+    }
+    return buffer.clear();
+  }
+
+  private static final class Sink {
+    private final WritableByteChannel channel;
+    private final ByteBuffer buffer;
+    private final CharsetEncoder encoder;
+    private long written;
+
+    private Sink(final WritableByteChannel channel, final ByteBuffer buffer,
+        final CharsetEncoder encoder) {
+      this.channel = channel;
+      this.buffer = buffer;
+      this.encoder = encoder;
+    }
+
+    /** Encodes each piece on its own, like {@code String.getBytes}, flushing when full. */
+    private void encode(final CharSequence text) throws IOException {
+      final CharBuffer in = CharBuffer.wrap(text);
+      encoder.reset();
+      boolean flushing = false;
+      while (true) {
+        final CoderResult result =
+            flushing ? encoder.flush(buffer) : encoder.encode(in, buffer, true);
+        if (result.isOverflow()) {
+          flush();
+        } else if (result.isError()) {
+          result.throwException();
+        } else if (flushing) {
+          return;
+        } else {
+          flushing = true;
+        }
+      }
+    }
+
+    private void flush() throws IOException {
+      written += writeFully(buffer.flip(), channel);
+      buffer.clear();
+    }
+
+    private long finish() throws IOException {
+      flush();
+      return written;
+    }
+  }
+}
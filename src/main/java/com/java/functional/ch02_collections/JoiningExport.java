@@ -0,0 +1,70 @@
+package com.java.functional.ch02_collections;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+public class JoiningExport {
+  public static void main(String[] args) throws IOException {
+    final int count = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+    final Path output = Files.createTempFile("joining", ".csv");
+    try {
+      for (int run = 0; run < 3; run++) {
+        final long joined = time("Collectors.joining + write", count, output, channel -> {
+          final byte[] bytes = values(count).collect(Collectors.joining(", "))
+              .getBytes(StandardCharsets.UTF_8);
+          try {
+            channel.write(ByteBuffer.wrap(bytes));
+          } catch (IOException e) {
+            throw new UncheckedIOException(e);
+          }
+          return bytes.length;
+        });
+        final long streamed = time("ChannelJoiner", count, output,
+            channel -> ChannelJoiner.joining(", ").writeTo(values(count), channel));
+        final long parallel = time("ChannelJoiner.parallel()", count, output,
+            channel -> ChannelJoiner.joining(", ").parallel().writeTo(values(count), channel));
+        System.out.println(String.format("Run %d consistent: %b%n", run,
+            joined == streamed && streamed == parallel && parallel == Files.size(output)));
+      }
+    } finally {
+      Files.delete(output);
+    }
+  }
+
+  private static Stream<String> values(final int count) {
+    return IntStream.range(0, count).mapToObj(i -> "item-" + i);
+  }
+
+  private static long time(final String label, final int count, final Path output,
+      final ToLongFunction<FileChannel> export) throws IOException {
+    System.gc();
+    ManagementFactory.getMemoryPoolMXBeans().forEach(MemoryPoolMXBean::resetPeakUsage);
+    final long start = System.nanoTime();
+    final long bytes;
+    try (FileChannel channel = FileChannel.open(output, StandardOpenOption.WRITE,
+        StandardOpenOption.TRUNCATE_EXISTING)) {
+      bytes = export.applyAsLong(channel);
+    }
+    final long nanos = System.nanoTime() - start;
+    final long peakHeap = ManagementFactory.getMemoryPoolMXBeans().stream()
+        .filter(pool -> pool.getType() == MemoryType.HEAP)
+        .mapToLong(pool -> pool.getPeakUsage().getUsed()).sum();
+    System.out.println(String.format("%-28s %8.1f MB/s %10.1f M rows/s  peak heap %6d MB",
+        label, bytes / (1024.0 * 1024.0) / (nanos / 1e9), count / 1e6 / (nanos / 1e9),
+        peakHeap >> 20));
+    return bytes;
+  }
+}
@@ -1,8 +1,10 @@
 package com.java.functional.ch02_collections;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.function.Predicate;
+import java.util.stream.Collectors;
 
 public class MoreOnLambda {
   private List<String> getFriends() {
@@ -43,9 +45,38 @@ public class MoreOnLambda {
     friends.stream().filter(checkIfStartsWith("S")).forEach(System.out::println);
   }
 
+  private void filterByStartWith3() {
+    List<String> friends = getFriends();
+
+    // one pass over the list for all three predicates
+    final List<Predicate<String>> selectors =
+        List.of(checkIfStartsWith("N"), checkIfStartsWith("B"), checkIfStartsWith("S"));
+    final List<List<String>> namesByLetter = selectors.stream()
+        .map(selector -> new ArrayList<String>())
+        .collect(Collectors.toList());
+    friends.forEach(name -> {
+      for (int i = 0; i < selectors.size(); i++) {
+        if (selectors.get(i).test(name)) {
+          namesByLetter.get(i).add(name);
+        }
+      }
+    });
+    namesByLetter.forEach(System.out::println);
+  }
+
+  private void filterByStartWith4() {
+    // sort once, then each prefix query is a binary search
+    final PrefixIndex friends = PrefixIndex.of(getFriends());
+
+    friends.startsWith("N").forEach(System.out::println);
+    System.out.println(String.format("%d friends start with S", friends.count("S")));
+  }
+
   public static void main(String[] args){
     MoreOnLambda app = new MoreOnLambda();
     app.filterByStartWith();
     app.filterByStartWith2();
+    app.filterByStartWith3();
+    app.filterByStartWith4();
   }
 }
@@ -0,0 +1,121 @@
+package com.java.functional.ch02_collections;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+
+/**
+ * An immutable index answering "names starting with X" with two binary searches over a sorted
+ * copy of the names instead of a scan of the whole list. Every name with a given prefix sorts
+ * into one contiguous range, so {@link #count} and {@link #findFirst} take O(log n) and
+ * {@link #startsWith} streams the k matches lazily.
+ *
+ * <p>Lists that change are served through {@link Swappable}: readers always see a complete
+ * index, and writers build a new one and swap it in without locking.
+ */
+public final class PrefixIndex {
+  private static final PrefixIndex EMPTY = new PrefixIndex(new String[0]);
+
+  private final String[] sorted;
+
+  private PrefixIndex(final String[] sorted) {
+    this.sorted = sorted;
+  }
+
+  public static PrefixIndex of(final Collection<String> names) {
+    final String[] sorted = names.toArray(new String[0]);
+    Arrays.sort(sorted);
+    return new PrefixIndex(sorted);
+  }
+
+  public static PrefixIndex empty() {
+    return EMPTY;
+  }
+
+  public Stream<String> startsWith(final String prefix) {
+    final int from = lowerBound(prefix);
+    return Arrays.stream(sorted, from, upperBound(prefix, from));
+  }
+
+  /** The smallest name, in {@code String} order, that starts with {@code prefix}. */
+  public Optional<String> findFirst(final String prefix) {
+    final int from = lowerBound(prefix);
+    return from < sorted.length && sorted[from].startsWith(prefix)
+        ? Optional.of(sorted[from]) : Optional.empty();
+  }
+
+  public int count(final String prefix) {
+    final int from = lowerBound(prefix);
+    return upperBound(prefix, from) - from;
+  }
+
+  public int size() {
+    return sorted.length;
+  }
+
+  /** A new index that also holds {@code names}; merges instead of re-sorting everything. */
+  public PrefixIndex plus(final Collection<String> names) {
+    final String[] added = of(names).sorted;
+    final String[] merged = new String[sorted.length + added.length];
+    for (int i = 0, left = 0, right = 0; i < merged.length; i++) {
+      merged[i] = right == added.length
+          || (left < sorted.length && sorted[left].compareTo(added[right]) <= 0)
+          ? sorted[left++] : added[right++];
+    }
+    return new PrefixIndex(merged);
+  }
+
+  private int lowerBound(final String prefix) {
+    int low = 0;
+    int high = sorted.length;
+    while (low < high) {
+      final int middle = (low + high) >>> 1;
+      if (sorted[middle].compareTo(prefix) < 0) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+
+  private int upperBound(final String prefix, final int from) {
+    int low = from;
+    int high = sorted.length;
+    while (low < high) {
+      final int middle = (low + high) >>> 1;
+      if (sorted[middle].startsWith(prefix)) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+
+  /** A lock-free holder for an index over names that change. */
+  public static final class Swappable {
+    private final AtomicReference<PrefixIndex> current;
+
+    public Swappable(final Collection<String> names) {
+      current = new AtomicReference<>(of(names));
+    }
+
+    public PrefixIndex get() {
+      return current.get();
+    }
+
+    /** Replaces the index with one built from {@code names}; queries in flight are unaffected. */
+    public void rebuild(final Collection<String> names) {
+      current.set(of(names));
+    }
+
+    /** Applies {@code change} to the latest index, retrying if another writer swapped first. */
+    public PrefixIndex update(final UnaryOperator<PrefixIndex> change) {
+      return current.updateAndGet(change);
+    }
+  }
+}
@@ -0,0 +1,70 @@
+package com.java.functional.ch02_collections;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+public class PrefixQueries {
+  public static void main(String[] args) {
+    final int count = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+    final int queries = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+    final Random random = new Random(42);
+    final List<String> names = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      names.add(randomName(random, 4 + random.nextInt(6)));
+    }
+    final String[] prefixes = IntStream.range(0, queries)
+        .mapToObj(i -> randomName(random, 1 + random.nextInt(3))).toArray(String[]::new);
+
+    final PrefixIndex index = time("PrefixIndex.of", () -> PrefixIndex.of(names));
+    final PrefixIndex.Swappable live = new PrefixIndex.Swappable(names);
+
+    for (int run = 0; run < 3; run++) {
+      final Integer scanned = time("filter(startsWith).count()", () -> {
+        int total = 0;
+        for (String prefix : prefixes) {
+          total += (int) names.stream().filter(name -> name.startsWith(prefix)).count();
+        }
+        return total;
+      });
+      final Integer counted = time("PrefixIndex.count", () -> {
+        int total = 0;
+        for (String prefix : prefixes) {
+          total += index.count(prefix);
+        }
+        return total;
+      });
+      final Integer streamed = time("PrefixIndex.startsWith().count()", () -> {
+        int total = 0;
+        for (String prefix : prefixes) {
+          total += (int) live.get().startsWith(prefix).count();
+        }
+        return total;
+      });
+      time("Swappable.update(plus 1000 names)", () -> live.update(
+          current -> current.plus(names.subList(0, 1000))));
+      live.rebuild(names);
+      System.out.println(String.format("Run %d consistent: %b%n", run,
+          scanned.equals(counted) && counted.equals(streamed)));
+    }
+  }
+
+  private static String randomName(final Random random, final int length) {
+    final StringBuilder name = new StringBuilder(length);
+    name.append((char) ('A' + random.nextInt(26)));
+    for (int i = 1; i < length; i++) {
+      name.append((char) ('a' + random.nextInt(26)));
+    }
+    return name.toString();
+  }
+
+  private static <R> R time(final String label, final Supplier<R> query) {
+    final long start = System.nanoTime();
+    final R result = query.get();
+    final long micros = (System.nanoTime() - start) / 1_000;
+    System.out.println(String.format("%-40s %,d us", label, micros));
+    return result;
+  }
+}
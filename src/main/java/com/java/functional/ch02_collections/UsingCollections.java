@@ -85,6 +85,12 @@ public class UsingCollections {
         startingLetter, foundName.orElse("Not Found")));
   }
 
+  private void pickFromIndex(final PrefixIndex names, final String startingLetter) {
+    System.out.println("====== pick - prefix index ======");
+    System.out.println(String.format("A name starting with %s: %s",
+        startingLetter, names.findFirst(startingLetter).orElse("Not Found")));
+  }
+
   private void reduce() {
     System.out.println("====== reduce - sum ======");
     System.out.println("Total number of characters in all names: " +
@@ -111,6 +117,10 @@ public class UsingCollections {
 
     System.out.println("====== join - collect ======");
     System.out.println(getFriends().stream().collect(joining(", ")));
+
+    System.out.println("====== join - write to a stream ======");
+    ChannelJoiner.joining(", ").writeTo(getFriends().stream(), System.out);
+    System.out.println();
   }
 
   public static void main(String[] args){
@@ -122,6 +132,7 @@ public class UsingCollections {
     app.terminate();
     app.pick(app.getFriends(), "N");
     app.pick(app.getFriends(), "Z");
+    app.pickFromIndex(PrefixIndex.of(app.getFriends()), "N");
     app.reduce();
     app.join();
   }
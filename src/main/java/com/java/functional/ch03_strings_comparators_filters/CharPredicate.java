@@ -0,0 +1,48 @@
+package com.java.functional.ch03_strings_comparators_filters;
+
+import java.util.function.IntPredicate;
+
+/** A {@code Predicate<Character>} without the boxing. */
+@FunctionalInterface
+public interface CharPredicate {
+  boolean test(char ch);
+
+  default CharPredicate and(final CharPredicate other) {
+    return ch -> test(ch) && other.test(ch);
+  }
+
+  default CharPredicate or(final CharPredicate other) {
+    return ch -> test(ch) || other.test(ch);
+  }
+
+  default CharPredicate negate() {
+    return ch -> !test(ch);
+  }
+
+  static CharPredicate of(final IntPredicate predicate) {
+    return ch -> predicate.test(ch);
+  }
+
+  static CharPredicate inRange(final char first, final char last) {
+    return ch -> ch >= first && ch <= last;
+  }
+
+  static CharPredicate asciiDigit() {
+    return inRange('0', '9');
+  }
+
+  /** Matches any of {@code chars}; Latin-1 characters are looked up in a 256-bit table. */
+  static CharPredicate anyOf(final String chars) {
+    final long[] latin1 = new long[4];
+    final StringBuilder others = new StringBuilder();
+    chars.chars().forEach(ch -> {
+      if (ch < 256) {
+        latin1[ch >>> 6] |= 1L << ch;
+      } else {
+        others.append((char) ch);
+      }
+    });
+    final String wide = others.toString();
+    return ch -> ch < 256 ? (latin1[ch >>> 6] & (1L << ch)) != 0 : wide.indexOf(ch) >= 0;
+  }
+}
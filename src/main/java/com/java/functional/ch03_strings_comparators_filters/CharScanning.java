@@ -0,0 +1,211 @@
+package com.java.functional.ch03_strings_comparators_filters;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Character scanning over {@code CharSequence}s, Latin-1 {@code byte[]}s and {@code ByteBuffer}s
+ * without going through {@code String.chars()} or boxing to {@code Character}.
+ *
+ * <p>The ASCII helpers read eight bytes at a time as a {@code long} and test all of them with a
+ * few arithmetic operations (SWAR). The Vector API is still an incubator module on the Java 17
+ * toolchain, so it is not used here.
+ */
+public class CharScanning {
+  private static final VarHandle LONGS =
+      MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+  private static final long ONES = 0x0101010101010101L;
+  private static final long HIGH_BITS = 0x8080808080808080L;
+  private static final long LOW_BITS = 0x7F7F7F7F7F7F7F7FL;
+
+  private CharScanning() {
+  }
+
+  public static int countMatching(final CharSequence text, final CharPredicate predicate) {
+    int count = 0;
+    for (int i = 0, length = text.length(); i < length; i++) {
+      if (predicate.test(text.charAt(i))) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  public static int indexOfMatching(final CharSequence text, final CharPredicate predicate,
+      final int fromIndex) {
+    for (int i = Math.max(0, fromIndex), length = text.length(); i < length; i++) {
+      if (predicate.test(text.charAt(i))) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /** Copies the matching characters to the start of {@code target}; returns how many. */
+  public static int filterInto(final CharSequence text, final CharPredicate predicate,
+      final char[] target) {
+    int count = 0;
+    for (int i = 0, length = text.length(); i < length; i++) {
+      final char ch = text.charAt(i);
+      if (predicate.test(ch)) {
+        target[count++] = ch;
+      }
+    }
+    return count;
+  }
+
+  public static int countMatching(final byte[] latin1, final int from, final int to,
+      final CharPredicate predicate) {
+    int count = 0;
+    for (int i = from; i < to; i++) {
+      if (predicate.test((char) (latin1[i] & 0xFF))) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  public static int indexOfMatching(final byte[] latin1, final int from, final int to,
+      final CharPredicate predicate) {
+    for (int i = from; i < to; i++) {
+      if (predicate.test((char) (latin1[i] & 0xFF))) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  public static int filterInto(final byte[] latin1, final int from, final int to,
+      final CharPredicate predicate, final char[] target) {
+    int count = 0;
+    for (int i = from; i < to; i++) {
+      final char ch = (char) (latin1[i] & 0xFF);
+      if (predicate.test(ch)) {
+        target[count++] = ch;
+      }
+    }
+    return count;
+  }
+
+  /** Counts between {@code position} and {@code limit} without moving the buffer's position. */
+  public static int countMatching(final ByteBuffer latin1, final CharPredicate predicate) {
+    if (latin1.hasArray()) {
+      final int offset = latin1.arrayOffset();
+      return countMatching(latin1.array(), offset + latin1.position(), offset + latin1.limit(),
+          predicate);
+    }
+    int count = 0;
+    for (int i = latin1.position(), limit = latin1.limit(); i < limit; i++) {
+      if (predicate.test((char) (latin1.get(i) & 0xFF))) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  /** The buffer index of the first match at or after {@code position}, or -1; no position moves. */
+  public static int indexOfMatching(final ByteBuffer latin1, final CharPredicate predicate) {
+    if (latin1.hasArray()) {
+      final int offset = latin1.arrayOffset();
+      final int index = indexOfMatching(latin1.array(), offset + latin1.position(),
+          offset + latin1.limit(), predicate);
+      return index < 0 ? -1 : index - offset;
+    }
+    for (int i = latin1.position(), limit = latin1.limit(); i < limit; i++) {
+      if (predicate.test((char) (latin1.get(i) & 0xFF))) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /** Copies the matches between {@code position} and {@code limit} to {@code target}. */
+  public static int filterInto(final ByteBuffer latin1, final CharPredicate predicate,
+      final char[] target) {
+    if (latin1.hasArray()) {
+      final int offset = latin1.arrayOffset();
+      return filterInto(latin1.array(), offset + latin1.position(), offset + latin1.limit(),
+          predicate, target);
+    }
+    int count = 0;
+    for (int i = latin1.position(), limit = latin1.limit(); i < limit; i++) {
+      final char ch = (char) (latin1.get(i) & 0xFF);
+      if (predicate.test(ch)) {
+        target[count++] = ch;
+      }
+    }
+    return count;
+  }
+
+  public static boolean isAscii(final byte[] bytes, final int from, final int to) {
+    int i = from;
+    for (; i + Long.BYTES <= to; i += Long.BYTES) {
+      if (((long) LONGS.get(bytes, i) & HIGH_BITS) != 0) {
+        return false;
+      }
+    }
+    for (; i < to; i++) {
+      if (bytes[i] < 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  public static int countAsciiDigits(final byte[] bytes, final int from, final int to) {
+    int count = 0;
+    int i = from;
+    for (; i + Long.BYTES <= to; i += Long.BYTES) {
+      final long word = (long) LONGS.get(bytes, i);
+      final long low = word & LOW_BITS;
+      final long atLeastZero = low + 0x50 * ONES;
+      final long aboveNine = low + 0x46 * ONES;
+      count += Long.bitCount(atLeastZero & ~aboveNine & ~word & HIGH_BITS);
+    }
+    for (; i < to; i++) {
+      if (bytes[i] >= '0' && bytes[i] <= '9') {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  public static int count(final byte[] bytes, final int from, final int to, final byte value) {
+    final long pattern = (value & 0xFFL) * ONES;
+    int count = 0;
+    int i = from;
+    for (; i + Long.BYTES <= to; i += Long.BYTES) {
+      count += Long.bitCount(zeroBytes((long) LONGS.get(bytes, i) ^ pattern));
+    }
+    for (; i < to; i++) {
+      if (bytes[i] == value) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  public static int indexOf(final byte[] bytes, final int from, final int to, final byte value) {
+    final long pattern = (value & 0xFFL) * ONES;
+    int i = from;
+    for (; i + Long.BYTES <= to; i += Long.BYTES) {
+      final long matches = zeroBytes((long) LONGS.get(bytes, i) ^ pattern);
+      if (matches != 0) {
+        return i + Long.numberOfTrailingZeros(matches) / Byte.SIZE;
+      }
+    }
+    for (; i < to; i++) {
+      if (bytes[i] == value) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /** Sets the high bit of exactly the bytes of {@code word} that are zero. */
+  private static long zeroBytes(final long word) {
+    return ~(((word & LOW_BITS) + LOW_BITS) | word | LOW_BITS);
+  }
+}
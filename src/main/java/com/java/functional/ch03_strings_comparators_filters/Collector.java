@@ -16,7 +16,9 @@ public class Collector {
     app.olderThan20();
     app.peopleByAge();
     app.peopleNameByAge();
+    app.peopleNameByAgeIntKeyed();
     app.oldestPersonOfEachLetter();
+    app.oldestPeopleOfEachLetter(2);
   }
 
   private List<Person> getPeople() {
@@ -52,6 +54,15 @@ public class Collector {
     System.out.println(nameOfPeopleByName);
   }
 
+  private void peopleNameByAgeIntKeyed() {
+    List<Person> people = getPeople();
+    IntKeyMap<List<String>> nameOfPeopleByAge =
+        people.stream().collect(
+            IntGroupingCollectors.groupingByInt(Person::getAge,
+                Collectors.mapping(Person::getName, Collectors.toList())));
+    System.out.println(nameOfPeopleByAge);
+  }
+
   private void oldestPersonOfEachLetter() {
     List<Person> people = getPeople();
     final Comparator<Person> byAge = Comparator.comparing(Person::getAge);
@@ -62,6 +73,15 @@ public class Collector {
     System.out.println(oldestPersonofEachLetter);
   }
 
+  private void oldestPeopleOfEachLetter(final int count) {
+    List<Person> people = getPeople();
+    final Comparator<Person> byAge = Comparator.comparing(Person::getAge);
+    Map<Character, List<Person>> oldestPeopleOfEachLetter =
+        people.stream().collect(
+            TopKCollectors.topKPerGroup(person -> person.getName().charAt(0), count, byAge));
+    System.out.println(oldestPeopleOfEachLetter);
+  }
+
   private void printPeople(final String message, final List<Person> people) {
     System.out.println(message);
     people.forEach(System.out::println);
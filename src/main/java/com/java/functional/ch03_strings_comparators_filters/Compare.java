@@ -11,6 +11,7 @@ public class Compare {
     Compare app = new Compare();
     app.sortByAge();
     app.sortUsingComparing();
+    app.sortUsingExtractedKeys();
   }
 
   private List<Person> getPeople() {
@@ -54,4 +55,13 @@ public class Compare {
             .sorted(Comparator.comparing(byAge).thenComparing(byName))
             .collect(Collectors.toList()));
   }
+
+  private void sortUsingExtractedKeys() {
+    List<Person> people = getPeople();
+    printPeople("Sorted by age and then name - extracted int keys: ",
+        people.stream()
+            .collect(KeySort.comparingInt(Person::getAge)
+                .thenComparing(Person::getName)
+                .toSortedList()));
+  }
 }
@@ -0,0 +1,233 @@
+package com.java.functional.ch03_strings_comparators_filters;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Searches file contents without reading them into {@code String}s. Each file is memory-mapped in
+ * segments of at most {@code SEGMENT_SIZE} bytes that end on line boundaries, so files over 2GB
+ * are fine, and the segments and files are scanned in parallel.
+ *
+ * <p>Literals are matched as UTF-8 bytes. Regular expressions see each line as ISO-8859-1, which
+ * is exact for ASCII patterns. Like grep, matches never span lines.
+ */
+public class ContentSearch {
+  static final long SEGMENT_SIZE = 64L << 20;
+
+  public record Match(Path path, long line, long offset) {
+    @Override
+    public String toString() {
+      return String.format("%s:%d (byte %d)", path, line, offset);
+    }
+  }
+
+  private ContentSearch() {
+  }
+
+  public static Stream<Match> searchLiteral(final Stream<Path> files, final String literal) {
+    final byte[] needle = literal.getBytes(StandardCharsets.UTF_8);
+    if (needle.length == 0 || literal.indexOf('\n') >= 0) {
+      throw new IllegalArgumentException("Literal must be non-empty and fit on one line");
+    }
+    return files.parallel().flatMap(file -> search(file, new LiteralScanner(needle)).stream());
+  }
+
+  public static Stream<Match> searchRegex(final Stream<Path> files, final Pattern pattern) {
+    return files.parallel().flatMap(file -> search(file, new RegexScanner(pattern)).stream());
+  }
+
+  private static List<Match> search(final Path file, final SegmentScanner scanner) {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      final List<long[]> segments = segments(channel, channel.size());
+      final List<SegmentResult> results = segments.parallelStream()
+          .map(segment -> scan(channel, segment[0], segment[1], scanner))
+          .collect(Collectors.toList());
+
+      final List<Match> matches = new ArrayList<>();
+      long linesBefore = 0;
+      for (SegmentResult result : results) {
+        for (int i = 0; i < result.offsets.size(); i++) {
+          matches.add(new Match(file, linesBefore + result.lines.get(i) + 1,
+              result.offsets.get(i)));
+        }
+        linesBefore += result.newlines;
+      }
+      return matches;
+    } catch (IOException exception) {
+      throw new UncheckedIOException(exception);
+    }
+  }
+
+  private static List<long[]> segments(final FileChannel channel, final long size)
+      throws IOException {
+    final List<long[]> segments = new ArrayList<>();
+    long start = 0;
+    while (start < size) {
+      long end = Math.min(size, start + SEGMENT_SIZE);
+      if (end < size) {
+        end = nextLineStart(channel, end, size);
+      }
+      segments.add(new long[] {start, end});
+      start = end;
+    }
+    return segments;
+  }
+
+  private static long nextLineStart(final FileChannel channel, final long from, final long size)
+      throws IOException {
+    final ByteBuffer buffer = ByteBuffer.allocate(8192);
+    long position = from;
+    while (position < size) {
+      buffer.clear();
+      final int read = channel.read(buffer, position);
+      for (int i = 0; i < read; i++) {
+        if (buffer.get(i) == '\n') {
+          return position + i + 1;
+        }
+      }
+      position += Math.max(read, 0);
+    }
+    return size;
+  }
+
+  private static SegmentResult scan(final FileChannel channel, final long start, final long end,
+      final SegmentScanner scanner) {
+    try {
+      final MappedByteBuffer bytes = channel.map(MapMode.READ_ONLY, start, end - start);
+      final SegmentResult result = new SegmentResult();
+      scanner.scan(bytes, start, result);
+      return result;
+    } catch (IOException exception) {
+      throw new UncheckedIOException(exception);
+    }
+  }
+
+  private static class SegmentResult {
+    private final List<Long> offsets = new ArrayList<>();
+    private final List<Long> lines = new ArrayList<>();
+    private long newlines;
+
+    void add(final long offset, final long line) {
+      offsets.add(offset);
+      lines.add(line);
+    }
+  }
+
+  private interface SegmentScanner {
+    void scan(ByteBuffer bytes, long baseOffset, SegmentResult result);
+  }
+
+  private static class LiteralScanner implements SegmentScanner {
+    private final byte[] needle;
+
+    LiteralScanner(final byte[] needle) {
+      this.needle = needle;
+    }
+
+    @Override
+    public void scan(final ByteBuffer bytes, final long baseOffset, final SegmentResult result) {
+      final int limit = bytes.limit();
+      final byte first = needle[0];
+      long line = 0;
+      for (int i = 0; i < limit; i++) {
+        final byte b = bytes.get(i);
+        if (b == '\n') {
+          line++;
+        } else if (b == first && matchesAt(bytes, i, limit)) {
+          result.add(baseOffset + i, line);
+        }
+      }
+      result.newlines = line;
+    }
+
+    private boolean matchesAt(final ByteBuffer bytes, final int position, final int limit) {
+      if (position + needle.length > limit) {
+        return false;
+      }
+      for (int j = 1; j < needle.length; j++) {
+        if (bytes.get(position + j) != needle[j]) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+
+  private static class RegexScanner implements SegmentScanner {
+    private final Pattern pattern;
+
+    RegexScanner(final Pattern pattern) {
+      this.pattern = pattern;
+    }
+
+    @Override
+    public void scan(final ByteBuffer bytes, final long baseOffset, final SegmentResult result) {
+      final int limit = bytes.limit();
+      final Matcher matcher = pattern.matcher("");
+      long line = 0;
+      int lineStart = 0;
+      for (int i = 0; i <= limit; i++) {
+        if (i == limit || bytes.get(i) == '\n') {
+          if (i > lineStart || i < limit) {
+            matcher.reset(new Latin1Sequence(bytes, lineStart, i));
+            while (matcher.find()) {
+              result.add(baseOffset + lineStart + matcher.start(), line);
+            }
+          }
+          if (i < limit) {
+            line++;
+          }
+          lineStart = i + 1;
+        }
+      }
+      result.newlines = line;
+    }
+  }
+
+  private static class Latin1Sequence implements CharSequence {
+    private final ByteBuffer bytes;
+    private final int start;
+    private final int end;
+
+    Latin1Sequence(final ByteBuffer bytes, final int start, final int end) {
+      this.bytes = bytes;
+      this.start = start;
+      this.end = end;
+    }
+
+    @Override
+    public int length() {
+      return end - start;
+    }
+
+    @Override
+    public char charAt(final int index) {
+      return (char) (bytes.get(start + index) & 0xFF);
+    }
+
+    @Override
+    public CharSequence subSequence(final int from, final int to) {
+      return new Latin1Sequence(bytes, start + from, start + to);
+    }
+
+    @Override
+    public String toString() {
+      final byte[] copy = new byte[length()];
+      bytes.get(start, copy);
+      return new String(copy, StandardCharsets.ISO_8859_1);
+    }
+  }
+}
@@ -0,0 +1,255 @@
+package com.java.functional.ch03_strings_comparators_filters;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * In-memory index of a directory tree that answers the {@link FileHandler} style listings without
+ * touching the file system. It is built with one scan and then kept current from
+ * {@link WatchService} events on a background thread; an overflow triggers a rescan of only the
+ * directory whose events were lost.
+ */
+public class DirectoryIndex implements Closeable {
+  private static final long BYTES_PER_ENTRY = 200;
+
+  private final Path root;
+  private final WatchService watchService;
+  private final Map<Path, Entry> entries = new ConcurrentHashMap<>();
+  private final Map<Path, Set<Path>> children = new ConcurrentHashMap<>();
+  private final Map<WatchKey, Path> watchedDirectories = new ConcurrentHashMap<>();
+  private final Map<Path, WatchKey> watchKeys = new ConcurrentHashMap<>();
+  private final AtomicLong eventsApplied = new AtomicLong();
+  private final AtomicLong overflows = new AtomicLong();
+  private final AtomicLong lastEventLagNanos = new AtomicLong();
+  private final AtomicLong maxEventLagNanos = new AtomicLong();
+  private final Thread watcher;
+
+  public record Entry(Path path, boolean directory, boolean hidden, long size,
+                      long lastModifiedMillis) {
+  }
+
+  public DirectoryIndex(final Path root) throws IOException {
+    this.root = root.toAbsolutePath().normalize();
+    watchService = this.root.getFileSystem().newWatchService();
+    scan(this.root, true);
+    watcher = new Thread(this::processEvents, "directory-index-" + this.root.getFileName());
+    watcher.setDaemon(true);
+    watcher.start();
+  }
+
+  public List<Path> children(final Path directory) {
+    return select(directory, entry -> true);
+  }
+
+  public List<Path> directories(final Path directory) {
+    return select(directory, Entry::directory);
+  }
+
+  public List<Path> hiddenFiles(final Path directory) {
+    return select(directory, Entry::hidden);
+  }
+
+  public List<Path> filesWithExtension(final Path directory, final String extension) {
+    return select(directory, entry -> entry.path().toString().endsWith(extension));
+  }
+
+  /** Children of the subdirectories of {@code directory}, plus its plain files. */
+  public List<Path> immediateDirectoryContents(final Path directory) {
+    return children(directory).stream()
+        .flatMap(child -> {
+          final Entry entry = entries.get(child);
+          return entry != null && entry.directory()
+              ? children(child).stream() : Stream.of(child);
+        })
+        .collect(Collectors.toList());
+  }
+
+  public Entry entry(final Path path) {
+    return entries.get(resolve(path));
+  }
+
+  public int size() {
+    return entries.size();
+  }
+
+  /** A rough estimate: a fixed per-entry overhead plus the characters of each path. */
+  public long estimatedMemoryBytes() {
+    return entries.keySet().stream()
+        .mapToLong(path -> BYTES_PER_ENTRY + 2L * path.toString().length())
+        .sum();
+  }
+
+  public long eventsApplied() {
+    return eventsApplied.get();
+  }
+
+  public long overflows() {
+    return overflows.get();
+  }
+
+  /**
+   * Time from the watcher dequeuing a batch of events to the index reflecting the last event
+   * applied. It does not include the time the file system took to deliver the events.
+   */
+  public Duration lastEventLag() {
+    return Duration.ofNanos(lastEventLagNanos.get());
+  }
+
+  public Duration maxEventLag() {
+    return Duration.ofNanos(maxEventLagNanos.get());
+  }
+
+  @Override
+  public void close() throws IOException {
+    watcher.interrupt();
+    watchService.close();
+  }
+
+  private List<Path> select(final Path directory, final Predicate<Entry> filter) {
+    return children.getOrDefault(resolve(directory), Set.of()).stream()
+        .map(entries::get)
+        .filter(entry -> entry != null && filter.test(entry))
+        .map(Entry::path)
+        .sorted()
+        .collect(Collectors.toList());
+  }
+
+  private Path resolve(final Path path) {
+    return path.toAbsolutePath().normalize();
+  }
+
+  /**
+   * Registers {@code directory} and indexes its children. Subdirectories are scanned too when
+   * {@code recursive} is set, otherwise only those not watched yet.
+   */
+  private void scan(final Path directory, final boolean recursive) throws IOException {
+    final WatchKey key =
+        directory.register(watchService, ENTRY_CREATE, ENTRY_DELETE, ENTRY_MODIFY);
+    watchedDirectories.put(key, directory);
+    watchKeys.put(directory, key);
+    final Set<Path> seen = new HashSet<>();
+    try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+      for (Path child : stream) {
+        seen.add(child);
+        final Entry entry = update(child);
+        if (entry != null && entry.directory()
+            && (recursive || !watchKeys.containsKey(child))) {
+          scan(child, true);
+        }
+      }
+    }
+    children.getOrDefault(directory, Set.of()).stream()
+        .filter(child -> !seen.contains(child))
+        .collect(Collectors.toList())
+        .forEach(this::remove);
+  }
+
+  private Entry update(final Path path) throws IOException {
+    try {
+      final BasicFileAttributes attributes =
+          Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+      final Entry entry = new Entry(path, attributes.isDirectory(), Files.isHidden(path),
+          attributes.size(), attributes.lastModifiedTime().toMillis());
+      entries.put(path, entry);
+      children.computeIfAbsent(path.getParent(), key -> ConcurrentHashMap.newKeySet()).add(path);
+      return entry;
+    } catch (NoSuchFileException exception) {
+      remove(path);
+      return null;
+    }
+  }
+
+  private void remove(final Path path) {
+    entries.remove(path);
+    final Set<Path> siblings = children.get(path.getParent());
+    if (siblings != null) {
+      siblings.remove(path);
+    }
+    final Set<Path> descendants = children.remove(path);
+    if (descendants != null) {
+      descendants.forEach(this::remove);
+    }
+    final WatchKey key = watchKeys.remove(path);
+    if (key != null) {
+      key.cancel();
+      watchedDirectories.remove(key);
+    }
+  }
+
+  private void processEvents() {
+    try {
+      while (!Thread.currentThread().isInterrupted()) {
+        final WatchKey key = watchService.take();
+        final long dequeuedNanos = System.nanoTime();
+        final Path directory = watchedDirectories.get(key);
+        if (directory != null) {
+          for (WatchEvent<?> event : key.pollEvents()) {
+            apply(directory, event);
+          }
+          recordLag(System.nanoTime() - dequeuedNanos);
+        }
+        if (!key.reset() && directory != null) {
+          remove(directory);
+        }
+      }
+    } catch (InterruptedException | ClosedWatchServiceException exception) {
+      // closed
+    }
+  }
+
+  private void apply(final Path directory, final WatchEvent<?> event) {
+    try {
+      if (event.kind() == OVERFLOW) {
+        // only this directory's events were lost; its subdirectories have their own keys
+        overflows.incrementAndGet();
+        scan(directory, false);
+        return;
+      }
+      final Path path = directory.resolve((Path) event.context());
+      if (event.kind() == ENTRY_DELETE) {
+        remove(path);
+      } else {
+        final boolean known = entries.containsKey(path);
+        final Entry entry = update(path);
+        if (entry != null && entry.directory() && !known) {
+          scan(path, true);
+        }
+      }
+      eventsApplied.incrementAndGet();
+    } catch (IOException exception) {
+      if (!Files.isDirectory(directory)) {
+        remove(directory);
+      }
+    }
+  }
+
+  private void recordLag(final long lag) {
+    lastEventLagNanos.set(lag);
+    maxEventLagNanos.accumulateAndGet(lag, Math::max);
+  }
+}
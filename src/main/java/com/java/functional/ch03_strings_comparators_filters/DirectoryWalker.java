@@ -0,0 +1,227 @@
+package com.java.functional.ch03_strings_comparators_filters;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Walks a directory tree on a fork/join pool and hands the matching paths to a lazy
+ * {@code Stream}. Paths are handed over in small batches and at most about {@code bufferSize}
+ * of them are held between the walkers and the consumer. Every directory handle is closed before
+ * its subdirectories are visited.
+ *
+ * <p>Name, hidden-file and depth filters are applied before an entry's attributes are read, and
+ * attributes are read once per entry. Hidden means the name starts with a dot. The returned
+ * stream must be closed, e.g. with try-with-resources, to stop a walk that was not drained.
+ */
+public class DirectoryWalker {
+  private static final Object END = new Object();
+  private static final int BATCH_SIZE = 256;
+
+  private final int maxDepth;
+  private final boolean includeHidden;
+  private final Predicate<String> nameFilter;
+  private final Predicate<BasicFileAttributes> attributeFilter;
+  private final int parallelism;
+  private final int bufferSize;
+
+  public DirectoryWalker() {
+    this(Integer.MAX_VALUE, true, name -> true, attributes -> true,
+        Runtime.getRuntime().availableProcessors(), 1024);
+  }
+
+  private DirectoryWalker(final int maxDepth, final boolean includeHidden,
+      final Predicate<String> nameFilter, final Predicate<BasicFileAttributes> attributeFilter,
+      final int parallelism, final int bufferSize) {
+    this.maxDepth = maxDepth;
+    this.includeHidden = includeHidden;
+    this.nameFilter = nameFilter;
+    this.attributeFilter = attributeFilter;
+    this.parallelism = parallelism;
+    this.bufferSize = bufferSize;
+  }
+
+  public DirectoryWalker maxDepth(final int depth) {
+    return new DirectoryWalker(depth, includeHidden, nameFilter, attributeFilter, parallelism,
+        bufferSize);
+  }
+
+  public DirectoryWalker includeHidden(final boolean include) {
+    return new DirectoryWalker(maxDepth, include, nameFilter, attributeFilter, parallelism,
+        bufferSize);
+  }
+
+  public DirectoryWalker names(final Predicate<String> filter) {
+    return new DirectoryWalker(maxDepth, includeHidden, nameFilter.and(filter), attributeFilter,
+        parallelism, bufferSize);
+  }
+
+  public DirectoryWalker extension(final String extension) {
+    return names(name -> name.endsWith(extension));
+  }
+
+  public DirectoryWalker attributes(final Predicate<BasicFileAttributes> filter) {
+    return new DirectoryWalker(maxDepth, includeHidden, nameFilter, attributeFilter.and(filter),
+        parallelism, bufferSize);
+  }
+
+  public DirectoryWalker parallelism(final int threads) {
+    return new DirectoryWalker(maxDepth, includeHidden, nameFilter, attributeFilter, threads,
+        bufferSize);
+  }
+
+  public DirectoryWalker bufferSize(final int size) {
+    return new DirectoryWalker(maxDepth, includeHidden, nameFilter, attributeFilter, parallelism,
+        size);
+  }
+
+  /** Streams the matching entries below {@code root}; the root itself is not included. */
+  public Stream<Path> walk(final Path root) {
+    final BlockingQueue<Object> buffer =
+        new ArrayBlockingQueue<>(Math.max(1, bufferSize / BATCH_SIZE));
+    final AtomicBoolean cancelled = new AtomicBoolean();
+    final ForkJoinPool pool = new ForkJoinPool(parallelism);
+    pool.execute(() -> {
+      Object last = END;
+      try {
+        new WalkTask(root, 0, buffer, cancelled).invoke();
+      } catch (Throwable throwable) {
+        last = throwable instanceof RuntimeException exception
+            ? exception : new IllegalStateException(throwable);
+      }
+      offer(buffer, cancelled, last);
+      pool.shutdown();
+    });
+
+    final Spliterator<Path> paths =
+        new Spliterators.AbstractSpliterator<>(Long.MAX_VALUE, Spliterator.NONNULL) {
+          private Iterator<Path> batch = Collections.emptyIterator();
+          private boolean done;
+
+          @Override
+          @SuppressWarnings("unchecked")
+          public boolean tryAdvance(final Consumer<? super Path> action) {
+            while (!batch.hasNext()) {
+              if (done) {
+                return false;
+              }
+              final Object next = take(buffer);
+              if (next == END) {
+                done = true;
+                return false;
+              }
+              if (next instanceof RuntimeException exception) {
+                done = true;
+                throw exception;
+              }
+              batch = ((List<Path>) next).iterator();
+            }
+            action.accept(batch.next());
+            return true;
+          }
+        };
+    return StreamSupport.stream(paths, false).onClose(() -> {
+      cancelled.set(true);
+      buffer.clear();
+      pool.shutdownNow();
+    });
+  }
+
+  private static Object take(final BlockingQueue<Object> buffer) {
+    try {
+      return buffer.take();
+    } catch (InterruptedException exception) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while walking directories", exception);
+    }
+  }
+
+  private static void offer(final BlockingQueue<Object> buffer, final AtomicBoolean cancelled,
+      final Object element) {
+    try {
+      while (!cancelled.get() && !buffer.offer(element, 50, TimeUnit.MILLISECONDS)) {
+        // the consumer is behind; wait for room unless the stream was closed
+      }
+    } catch (InterruptedException exception) {
+      Thread.currentThread().interrupt();
+      cancelled.set(true);
+    }
+  }
+
+  @SuppressWarnings("serial")
+  private class WalkTask extends RecursiveAction {
+    private final Path directory;
+    private final int depth;
+    private final BlockingQueue<Object> buffer;
+    private final AtomicBoolean cancelled;
+
+    WalkTask(final Path directory, final int depth, final BlockingQueue<Object> buffer,
+        final AtomicBoolean cancelled) {
+      this.directory = directory;
+      this.depth = depth;
+      this.buffer = buffer;
+      this.cancelled = cancelled;
+    }
+
+    @Override
+    protected void compute() {
+      final int entryDepth = depth + 1;
+      final boolean descend = entryDepth < maxDepth;
+      final List<WalkTask> subdirectories = new ArrayList<>();
+      List<Path> matches = new ArrayList<>();
+      try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
+        for (Path entry : entries) {
+          if (cancelled.get()) {
+            return;
+          }
+          final String name = entry.getFileName().toString();
+          if (!includeHidden && name.startsWith(".")) {
+            continue;
+          }
+          final boolean nameMatches = nameFilter.test(name);
+          if (!nameMatches && !descend) {
+            continue;
+          }
+          final BasicFileAttributes attributes =
+              Files.readAttributes(entry, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+          if (nameMatches && attributeFilter.test(attributes)) {
+            matches.add(entry);
+            if (matches.size() == BATCH_SIZE) {
+              offer(buffer, cancelled, matches);
+              matches = new ArrayList<>();
+            }
+          }
+          if (descend && attributes.isDirectory()) {
+            subdirectories.add(new WalkTask(entry, entryDepth, buffer, cancelled));
+          }
+        }
+      } catch (IOException exception) {
+        throw new UncheckedIOException(exception);
+      }
+      if (!matches.isEmpty()) {
+        offer(buffer, cancelled, matches);
+      }
+      invokeAll(subdirectories);
+    }
+  }
+}
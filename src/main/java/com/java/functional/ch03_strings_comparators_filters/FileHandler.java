@@ -2,8 +2,11 @@ package com.java.functional.ch03_strings_comparators_filters;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.List;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -15,35 +18,67 @@ public class FileHandler {
     app.listSelectFiles("src/main/java/com/java/functional/ch01_intro", ".java");
     app.listHiddenFiles(".");
     app.listImmediateDirectories(".");
+    app.listSelectFilesRecursively("src", ".java");
+    app.searchSelectFiles("src", ".java", "Files.newDirectoryStream");
   }
 
   private void printFileNames(String path) throws IOException {
-    Files.list(Paths.get(path)).forEach(System.out::println);
+    try (Stream<Path> paths = Files.list(Paths.get(path))) {
+      paths.forEach(System.out::println);
+    }
   }
 
   private void printDirectoryNames(String path) throws IOException {
     System.out.println(String.format("Contents of %s", path));
-    Files.list(Paths.get(path)).filter(Files::isDirectory).forEach(System.out::println);
+    try (Stream<Path> paths = Files.list(Paths.get(path))) {
+      paths.filter(Files::isDirectory).forEach(System.out::println);
+    }
   }
 
   private void listSelectFiles(String path, String extension) throws IOException {
     System.out.println(String.format("%s files under %s", extension, path));
-    Files.newDirectoryStream(Paths.get(path), p -> p.toString().endsWith(extension))
-        .forEach(System.out::println);
+    try (DirectoryStream<Path> paths =
+        Files.newDirectoryStream(Paths.get(path), p -> p.toString().endsWith(extension))) {
+      paths.forEach(System.out::println);
+    }
   }
 
   private void listHiddenFiles(String path) throws IOException {
     System.out.println(String.format("Hidden files under %s", path));
-    Files.newDirectoryStream(Paths.get(path), Files::isHidden)
-        .forEach(System.out::println);
+    try (DirectoryStream<Path> paths = Files.newDirectoryStream(Paths.get(path), Files::isHidden)) {
+      paths.forEach(System.out::println);
+    }
   }
 
   private void listImmediateDirectories(String path) throws IOException {
     System.out.println(String.format("Immediate directories under %s", path));
     List<File> files = Stream.of(new File(path).listFiles())
-        .flatMap(file -> file.listFiles() == null ?
-            Stream.of(file) : Stream.of(file.listFiles()))
+        .flatMap(file -> {
+          final File[] children = file.listFiles();
+          return children == null ? Stream.of(file) : Stream.of(children);
+        })
         .collect(Collectors.toList());
     System.out.println(files);
   }
+
+  private void listSelectFilesRecursively(String path, String extension) {
+    System.out.println(String.format("%s files anywhere under %s", extension, path));
+    try (Stream<Path> paths = new DirectoryWalker()
+        .includeHidden(false)
+        .extension(extension)
+        .attributes(BasicFileAttributes::isRegularFile)
+        .walk(Paths.get(path))) {
+      paths.forEach(System.out::println);
+    }
+  }
+
+  private void searchSelectFiles(String path, String extension, String text) {
+    System.out.println(String.format("%s files under %s containing \"%s\"", extension, path, text));
+    try (Stream<Path> paths = new DirectoryWalker()
+        .extension(extension)
+        .attributes(BasicFileAttributes::isRegularFile)
+        .walk(Paths.get(path))) {
+      ContentSearch.searchLiteral(paths, text).forEach(System.out::println);
+    }
+  }
 }
@@ -0,0 +1,44 @@
+package com.java.functional.ch03_strings_comparators_filters;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+public class GroupingByAge {
+  public static void main(String[] args) {
+    final int count = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+    final Random random = new Random(42);
+    final List<Person> people = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      people.add(new Person("P" + i, random.nextInt(100)));
+    }
+
+    for (int run = 0; run < 3; run++) {
+      final Map<Integer, Long> boxed = time("groupingBy", () -> people.stream()
+          .collect(Collectors.groupingBy(Person::getAge, Collectors.counting())));
+      time("groupingByConcurrent (parallel)", () -> people.parallelStream()
+          .collect(Collectors.groupingByConcurrent(Person::getAge, Collectors.counting())));
+      final IntKeyMap<Long> intKeyed = time("groupingByInt", () -> people.stream()
+          .collect(IntGroupingCollectors.groupingByInt(Person::getAge, Collectors.counting())));
+      time("groupingByInt (parallel)", () -> people.parallelStream()
+          .collect(IntGroupingCollectors.groupingByInt(Person::getAge, Collectors.counting())));
+      final IntKeyMap<Long> concurrent = time("groupingByIntConcurrent (parallel)",
+          () -> people.parallelStream().collect(
+              IntGroupingCollectors.groupingByIntConcurrent(Person::getAge,
+                  Collectors.counting())));
+      System.out.println(String.format("Run %d consistent: %b%n", run,
+          boxed.equals(intKeyed.toMap()) && boxed.equals(concurrent.toMap())));
+    }
+  }
+
+  private static <R> R time(final String label, final Supplier<R> grouping) {
+    final long start = System.nanoTime();
+    final R result = grouping.get();
+    final long millis = (System.nanoTime() - start) / 1_000_000;
+    System.out.println(String.format("%-36s %d ms", label, millis));
+    return result;
+  }
+}
@@ -0,0 +1,66 @@
+package com.java.functional.ch03_strings_comparators_filters;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public class IndexingDirectories {
+  public static void main(String[] args) throws IOException, InterruptedException {
+    final Path root = Paths.get(args.length > 0 ? args[0] : ".");
+    final int queries = 1_000;
+    try (DirectoryIndex index = new DirectoryIndex(root)) {
+      System.out.println(String.format("Indexed %d entries, about %d KB",
+          index.size(), index.estimatedMemoryBytes() / 1024));
+      System.out.println("Hidden files: " + index.hiddenFiles(root));
+      System.out.println("Directories: " + index.directories(root));
+
+      for (int run = 0; run < 3; run++) {
+        long start = System.nanoTime();
+        long found = 0;
+        for (int i = 0; i < queries; i++) {
+          try (Stream<Path> paths = Files.list(root)) {
+            found += paths.count();
+          }
+          try (DirectoryStream<Path> paths = Files.newDirectoryStream(root, Files::isHidden)) {
+            for (Path ignored : paths) {
+              found++;
+            }
+          }
+        }
+        final long fileSystemNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        long indexed = 0;
+        for (int i = 0; i < queries; i++) {
+          indexed += index.children(root).size() + index.hiddenFiles(root).size();
+        }
+        final long indexNanos = System.nanoTime() - start;
+        System.out.println(String.format(
+            "Run %d: file system %.1f us/query, index %.1f us/query, same results: %b",
+            run, fileSystemNanos / 1e3 / queries, indexNanos / 1e3 / queries, found == indexed));
+      }
+
+      final Path scratch = Files.createTempDirectory(root.toAbsolutePath(), ".index-demo");
+      final Path created = Files.createFile(scratch.resolve("created.txt"));
+      while (index.entry(created) == null) {
+        Thread.sleep(10);
+      }
+      Files.delete(created);
+      Files.delete(scratch);
+      while (index.entry(scratch) != null) {
+        Thread.sleep(10);
+      }
+      System.out.println(String.format("Events applied: %d, overflows: %d, max lag: %s",
+          index.eventsApplied(), index.overflows(), index.maxEventLag()));
+      final List<String> names = index.hiddenFiles(root).stream()
+          .map(path -> path.getFileName().toString())
+          .collect(Collectors.toList());
+      System.out.println("Hidden files after cleanup: " + names);
+    }
+  }
+}
@@ -0,0 +1,95 @@
+package com.java.functional.ch03_strings_comparators_filters;
+
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+import java.util.stream.Collector;
+import java.util.stream.Collector.Characteristics;
+import java.util.stream.Collectors;
+
+/**
+ * {@code groupingBy} for {@code int} keys. Groups are kept in an {@link IntKeyMap}, so keys such
+ * as {@code Person::getAge} are never boxed. Any downstream collector works, e.g.
+ * {@code Collectors.mapping}, {@code counting} or {@code reducing}.
+ */
+public class IntGroupingCollectors {
+  private static final int STRIPES = 64;
+
+  private IntGroupingCollectors() {
+  }
+
+  public static <T> Collector<T, ?, IntKeyMap<List<T>>> groupingByInt(
+      final ToIntFunction<? super T> classifier) {
+    return groupingByInt(classifier, Collectors.toList());
+  }
+
+  public static <T, A, D> Collector<T, ?, IntKeyMap<D>> groupingByInt(
+      final ToIntFunction<? super T> classifier, final Collector<? super T, A, D> downstream) {
+    final Supplier<A> supplier = downstream.supplier();
+    final BiConsumer<A, ? super T> accumulator = downstream.accumulator();
+    final BinaryOperator<A> combiner = downstream.combiner();
+    final Function<A, D> finisher = downstream.finisher();
+    return Collector.of(
+        IntKeyMap<A>::new,
+        (groups, element) -> accumulator.accept(
+            groups.computeIfAbsent(classifier.applyAsInt(element), key -> supplier.get()),
+            element),
+        (left, right) -> left.merge(right, combiner),
+        groups -> groups.mapValues(finisher));
+  }
+
+  public static <T> Collector<T, ?, IntKeyMap<List<T>>> groupingByIntConcurrent(
+      final ToIntFunction<? super T> classifier) {
+    return groupingByIntConcurrent(classifier, Collectors.toList());
+  }
+
+  /**
+   * A {@code CONCURRENT} variant: parallel streams accumulate into one shared, lock-striped table
+   * instead of building a map per split and merging them afterwards.
+   */
+  @SuppressWarnings("unchecked")
+  public static <T, A, D> Collector<T, ?, IntKeyMap<D>> groupingByIntConcurrent(
+      final ToIntFunction<? super T> classifier, final Collector<? super T, A, D> downstream) {
+    final Supplier<A> supplier = downstream.supplier();
+    final BiConsumer<A, ? super T> accumulator = downstream.accumulator();
+    final BinaryOperator<A> combiner = downstream.combiner();
+    final Function<A, D> finisher = downstream.finisher();
+    return Collector.<T, IntKeyMap<A>[], IntKeyMap<D>>of(
+        () -> {
+          @SuppressWarnings("rawtypes")
+          final IntKeyMap<A>[] stripes = new IntKeyMap[STRIPES];
+          for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new IntKeyMap<>();
+          }
+          return stripes;
+        },
+        (stripes, element) -> {
+          final int key = classifier.applyAsInt(element);
+          final IntKeyMap<A> stripe = stripes[stripe(key)];
+          synchronized (stripe) {
+            accumulator.accept(stripe.computeIfAbsent(key, ignored -> supplier.get()), element);
+          }
+        },
+        (left, right) -> {
+          for (int i = 0; i < STRIPES; i++) {
+            left[i].merge(right[i], combiner);
+          }
+          return left;
+        },
+        stripes -> {
+          final IntKeyMap<D> groups = new IntKeyMap<>();
+          for (IntKeyMap<A> stripe : stripes) {
+            stripe.forEach((key, container) -> groups.put(key, finisher.apply(container)));
+          }
+          return groups;
+        },
+        Characteristics.CONCURRENT, Characteristics.UNORDERED);
+  }
+
+  private static int stripe(final int key) {
+    return (key * 0x9E3779B9) >>> (Integer.SIZE - Integer.numberOfTrailingZeros(STRIPES));
+  }
+}
@@ -0,0 +1,163 @@
+package com.java.functional.ch03_strings_comparators_filters;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+/**
+ * A map from {@code int} keys to non-null values using open addressing with linear probing, so
+ * keys are never boxed and there is no entry object per mapping.
+ */
+public class IntKeyMap<V> {
+  private static final int GOLDEN_RATIO = 0x9E3779B9;
+
+  private int[] keys;
+  private Object[] values;
+  private int size;
+
+  @FunctionalInterface
+  public interface IntObjConsumer<V> {
+    void accept(int key, V value);
+  }
+
+  public IntKeyMap() {
+    this(16);
+  }
+
+  public IntKeyMap(final int expectedSize) {
+    final int capacity = Integer.highestOneBit(Math.max(4, expectedSize * 2 - 1)) << 1;
+    keys = new int[capacity];
+    values = new Object[capacity];
+  }
+
+  @SuppressWarnings("unchecked")
+  public V get(final int key) {
+    return (V) values[slot(key)];
+  }
+
+  public boolean containsKey(final int key) {
+    return values[slot(key)] != null;
+  }
+
+  @SuppressWarnings("unchecked")
+  public V put(final int key, final V value) {
+    if (value == null) {
+      throw new NullPointerException("IntKeyMap does not hold null values");
+    }
+    final int slot = slot(key);
+    final V previous = (V) values[slot];
+    keys[slot] = key;
+    values[slot] = value;
+    if (previous == null) {
+      size++;
+      growIfNeeded();
+    }
+    return previous;
+  }
+
+  @SuppressWarnings("unchecked")
+  public V computeIfAbsent(final int key, final IntFunction<? extends V> factory) {
+    final int slot = slot(key);
+    if (values[slot] != null) {
+      return (V) values[slot];
+    }
+    final V value = factory.apply(key);
+    if (value == null) {
+      return null;
+    }
+    keys[slot] = key;
+    values[slot] = value;
+    size++;
+    growIfNeeded();
+    return value;
+  }
+
+  public IntKeyMap<V> merge(final IntKeyMap<V> other, final BinaryOperator<V> combiner) {
+    other.forEach((key, value) -> {
+      final V existing = get(key);
+      put(key, existing == null ? value : combiner.apply(existing, value));
+    });
+    return this;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  @SuppressWarnings("unchecked")
+  public void forEach(final IntObjConsumer<? super V> action) {
+    for (int i = 0; i < values.length; i++) {
+      if (values[i] != null) {
+        action.accept(keys[i], (V) values[i]);
+      }
+    }
+  }
+
+  public int[] keys() {
+    final int[] result = new int[size];
+    final int[] index = {0};
+    forEach((key, value) -> result[index[0]++] = key);
+    Arrays.sort(result);
+    return result;
+  }
+
+  public <R> IntKeyMap<R> mapValues(final Function<? super V, ? extends R> mapper) {
+    final IntKeyMap<R> mapped = new IntKeyMap<>(size);
+    forEach((key, value) -> mapped.put(key, mapper.apply(value)));
+    return mapped;
+  }
+
+  /** A boxed, key-ordered copy for printing or for APIs that need a {@code Map}. */
+  public Map<Integer, V> toMap() {
+    final Map<Integer, V> map = new TreeMap<>();
+    forEach(map::put);
+    return map;
+  }
+
+  @Override
+  public String toString() {
+    return toMap().toString();
+  }
+
+  private int slot(final int key) {
+    final int mask = keys.length - 1;
+    int slot = mix(key) & mask;
+    while (values[slot] != null && keys[slot] != key) {
+      slot = (slot + 1) & mask;
+    }
+    return slot;
+  }
+
+  private static int mix(final int key) {
+    final int hash = key * GOLDEN_RATIO;
+    return hash ^ (hash >>> 16);
+  }
+
+  private void growIfNeeded() {
+    if (size * 2 <= keys.length) {
+      return;
+    }
+    final int[] oldKeys = keys;
+    final Object[] oldValues = values;
+    keys = new int[oldKeys.length * 2];
+    values = new Object[oldValues.length * 2];
+    final int mask = keys.length - 1;
+    for (int i = 0; i < oldValues.length; i++) {
+      if (oldValues[i] != null) {
+        int slot = mix(oldKeys[i]) & mask;
+        while (values[slot] != null) {
+          slot = (slot + 1) & mask;
+        }
+        keys[slot] = oldKeys[i];
+        values[slot] = oldValues[i];
+      }
+    }
+  }
+}
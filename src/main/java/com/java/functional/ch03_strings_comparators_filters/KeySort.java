@@ -0,0 +1,284 @@
+package com.java.functional.ch03_strings_comparators_filters;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collector;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Sorts by primitive keys that are extracted once per element instead of on every comparison.
+ * The keys are radix-sorted together with element indexes; an {@code int} key followed by another
+ * {@code int} key is packed into one {@code long}. An {@code int} key followed by a
+ * {@code Comparable} one, such as a name, is packed the same way: the distinct values are sorted
+ * once and each element's value replaced by its rank among them. Any remaining comparator only
+ * orders runs of elements whose keys are equal. The sort is stable.
+ *
+ * <pre>
+ * people.stream().collect(KeySort.comparingInt(Person::getAge)
+ *     .thenComparing(Person::getName)
+ *     .toSortedList());
+ * </pre>
+ */
+public class KeySort<T> {
+  private static final int PARALLEL_CHUNK = 1 << 16;
+
+  private final ToLongFunction<? super T> key;
+  private final int keyBytes;
+  private final Function<? super T, ? extends Comparable<?>> ranked;
+  private final Comparator<? super T> tieBreaker;
+  private final boolean parallel;
+
+  private KeySort(final ToLongFunction<? super T> key, final int keyBytes,
+      final Function<? super T, ? extends Comparable<?>> ranked,
+      final Comparator<? super T> tieBreaker, final boolean parallel) {
+    this.key = key;
+    this.keyBytes = keyBytes;
+    this.ranked = ranked;
+    this.tieBreaker = tieBreaker;
+    this.parallel = parallel;
+  }
+
+  public static <T> KeySort<T> comparingInt(final ToIntFunction<? super T> key) {
+    return new KeySort<>(element -> unsigned(key.applyAsInt(element)), Integer.BYTES, null, null,
+        false);
+  }
+
+  public static <T> KeySort<T> comparingLong(final ToLongFunction<? super T> key) {
+    return new KeySort<>(element -> key.applyAsLong(element) ^ Long.MIN_VALUE, Long.BYTES, null,
+        null, false);
+  }
+
+  public KeySort<T> thenComparingInt(final ToIntFunction<? super T> secondary) {
+    if (packs()) {
+      final ToLongFunction<? super T> primary = key;
+      return new KeySort<>(
+          element -> primary.applyAsLong(element) << 32 | unsigned(secondary.applyAsInt(element)),
+          Long.BYTES, null, null, parallel);
+    }
+    return thenComparing(Comparator.comparingInt(secondary));
+  }
+
+  public KeySort<T> thenComparingLong(final ToLongFunction<? super T> secondary) {
+    return thenComparing(Comparator.comparingLong(secondary));
+  }
+
+  /**
+   * After an {@code int} key, ranks the values of {@code secondary} and packs the rank into the
+   * key. The natural ordering of {@code U} must be consistent with {@code equals}.
+   */
+  public <U extends Comparable<? super U>> KeySort<T> thenComparing(
+      final Function<? super T, ? extends U> secondary) {
+    if (packs()) {
+      return new KeySort<>(key, keyBytes, secondary, null, parallel);
+    }
+    return thenComparing(Comparator.comparing(secondary));
+  }
+
+  @SuppressWarnings("unchecked")
+  public KeySort<T> thenComparing(final Comparator<? super T> secondary) {
+    final Comparator<? super T> combined = tieBreaker == null
+        ? secondary : ((Comparator<T>) tieBreaker).thenComparing(secondary);
+    return new KeySort<>(key, keyBytes, ranked, combined, parallel);
+  }
+
+  /**
+   * Sorts chunks, ranks values and orders runs of equal keys in parallel; worthwhile for millions
+   * of elements.
+   */
+  public KeySort<T> parallel() {
+    return new KeySort<>(key, keyBytes, ranked, tieBreaker, true);
+  }
+
+  @SuppressWarnings("unchecked")
+  public List<T> sort(final Collection<? extends T> elements) {
+    final Object[] source = elements.toArray();
+    final int size = source.length;
+    final long[] keys = new long[size];
+    final int[] indexes = new int[size];
+    for (int i = 0; i < size; i++) {
+      keys[i] = key.applyAsLong((T) source[i]);
+      indexes[i] = i;
+    }
+    final int bytes = ranked == null ? keyBytes : Long.BYTES;
+    if (ranked != null) {
+      final int[] ranks = ranks(source, (Function<Object, ? extends Comparable<?>>) ranked);
+      for (int i = 0; i < size; i++) {
+        keys[i] = keys[i] << 32 | ranks[i];
+      }
+    }
+    if (parallel && size > PARALLEL_CHUNK) {
+      parallelSort(keys, indexes, bytes);
+    } else {
+      radixSort(keys, indexes, 0, size, bytes);
+    }
+
+    final Object[] sorted = new Object[size];
+    for (int i = 0; i < size; i++) {
+      sorted[i] = source[indexes[i]];
+    }
+    if (tieBreaker != null) {
+      sortRuns(sorted, keys, (Comparator<Object>) tieBreaker);
+    }
+    return new ArrayList<>((List<T>) Arrays.asList(sorted));
+  }
+
+  public Collector<T, ?, List<T>> toSortedList() {
+    return Collectors.collectingAndThen(Collectors.toList(), this::sort);
+  }
+
+  /** A {@code sorted()}-like stage: {@code stream.collect(...)} is replaced by this call. */
+  public Stream<T> sorted(final Stream<? extends T> stream) {
+    return sort(stream.collect(Collectors.toList())).stream();
+  }
+
+  private boolean packs() {
+    return keyBytes == Integer.BYTES && ranked == null && tieBreaker == null;
+  }
+
+  /**
+   * The rank of each element's value among the distinct values in natural order. Values are
+   * looked up once per element; only the distinct ones are compared.
+   */
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  private int[] ranks(final Object[] source,
+      final Function<Object, ? extends Comparable<?>> value) {
+    final Map<Object, int[]> rankByValue = new HashMap<>();
+    final int[][] rankOf = new int[source.length][];
+    for (int i = 0; i < source.length; i++) {
+      rankOf[i] = rankByValue.computeIfAbsent(value.apply(source[i]), distinct -> new int[1]);
+    }
+    final Object[] distinct = rankByValue.keySet().toArray();
+    if (parallel) {
+      Arrays.parallelSort(distinct, (Comparator) Comparator.naturalOrder());
+    } else {
+      Arrays.sort(distinct);
+    }
+    for (int rank = 0; rank < distinct.length; rank++) {
+      rankByValue.get(distinct[rank])[0] = rank;
+    }
+    final int[] ranks = new int[source.length];
+    for (int i = 0; i < source.length; i++) {
+      ranks[i] = rankOf[i][0];
+    }
+    return ranks;
+  }
+
+  /** Orders each run of elements with equal keys by {@code tieBreaker}. */
+  private void sortRuns(final Object[] sorted, final long[] keys,
+      final Comparator<Object> tieBreaker) {
+    final List<int[]> runs = new ArrayList<>();
+    int runStart = 0;
+    for (int i = 1; i <= sorted.length; i++) {
+      if (i == sorted.length || keys[i] != keys[runStart]) {
+        if (i - runStart > 1) {
+          runs.add(new int[] {runStart, i});
+        }
+        runStart = i;
+      }
+    }
+    (parallel ? runs.parallelStream() : runs.stream())
+        .forEach(run -> Arrays.sort(sorted, run[0], run[1], tieBreaker));
+  }
+
+  private static long unsigned(final int value) {
+    return (value ^ Integer.MIN_VALUE) & 0xFFFFFFFFL;
+  }
+
+  /** Stable LSD radix sort of {@code keys[from, to)}, moving {@code indexes} along. */
+  private static void radixSort(final long[] keys, final int[] indexes, final int from,
+      final int to, final int bytes) {
+    final int size = to - from;
+    long[] sourceKeys = Arrays.copyOfRange(keys, from, to);
+    int[] sourceIndexes = Arrays.copyOfRange(indexes, from, to);
+    long[] targetKeys = new long[size];
+    int[] targetIndexes = new int[size];
+    final int[] offsets = new int[256];
+    for (int shift = 0; shift < bytes * 8 && size > 1; shift += 8) {
+      Arrays.fill(offsets, 0);
+      for (long value : sourceKeys) {
+        offsets[(int) (value >>> shift) & 0xFF]++;
+      }
+      if (offsets[(int) (sourceKeys[0] >>> shift) & 0xFF] == size) {
+        continue;
+      }
+      for (int bucket = 0, total = 0; bucket < 256; bucket++) {
+        final int count = offsets[bucket];
+        offsets[bucket] = total;
+        total += count;
+      }
+      for (int i = 0; i < size; i++) {
+        final int target = offsets[(int) (sourceKeys[i] >>> shift) & 0xFF]++;
+        targetKeys[target] = sourceKeys[i];
+        targetIndexes[target] = sourceIndexes[i];
+      }
+      final long[] keyBuffer = sourceKeys;
+      final int[] indexBuffer = sourceIndexes;
+      sourceKeys = targetKeys;
+      sourceIndexes = targetIndexes;
+      targetKeys = keyBuffer;
+      targetIndexes = indexBuffer;
+    }
+    System.arraycopy(sourceKeys, 0, keys, from, size);
+    System.arraycopy(sourceIndexes, 0, indexes, from, size);
+  }
+
+  private static void parallelSort(final long[] keys, final int[] indexes, final int bytes) {
+    final int size = keys.length;
+    final int chunks = (size + PARALLEL_CHUNK - 1) / PARALLEL_CHUNK;
+    IntStream.range(0, chunks).parallel().forEach(chunk -> radixSort(keys, indexes,
+        chunk * PARALLEL_CHUNK, Math.min(size, (chunk + 1) * PARALLEL_CHUNK), bytes));
+
+    long[] sourceKeys = keys;
+    int[] sourceIndexes = indexes;
+    long[] targetKeys = new long[size];
+    int[] targetIndexes = new int[size];
+    for (int width = PARALLEL_CHUNK; width < size; width *= 2) {
+      final int runWidth = width;
+      final long[] fromKeys = sourceKeys;
+      final int[] fromIndexes = sourceIndexes;
+      final long[] toKeys = targetKeys;
+      final int[] toIndexes = targetIndexes;
+      final int pairs = (size + 2 * runWidth - 1) / (2 * runWidth);
+      IntStream.range(0, pairs).parallel().forEach(pair -> {
+        final int start = pair * 2 * runWidth;
+        final int middle = Math.min(size, start + runWidth);
+        final int end = Math.min(size, start + 2 * runWidth);
+        merge(fromKeys, fromIndexes, toKeys, toIndexes, start, middle, end);
+      });
+      sourceKeys = toKeys;
+      sourceIndexes = toIndexes;
+      targetKeys = fromKeys;
+      targetIndexes = fromIndexes;
+    }
+    if (sourceKeys != keys) {
+      System.arraycopy(sourceKeys, 0, keys, 0, size);
+      System.arraycopy(sourceIndexes, 0, indexes, 0, size);
+    }
+  }
+
+  private static void merge(final long[] fromKeys, final int[] fromIndexes, final long[] toKeys,
+      final int[] toIndexes, final int start, final int middle, final int end) {
+    int left = start;
+    int right = middle;
+    for (int i = start; i < end; i++) {
+      if (right >= end
+          || (left < middle && Long.compareUnsigned(fromKeys[left], fromKeys[right]) <= 0)) {
+        toKeys[i] = fromKeys[left];
+        toIndexes[i] = fromIndexes[left++];
+      } else {
+        toKeys[i] = fromKeys[right];
+        toIndexes[i] = fromIndexes[right++];
+      }
+    }
+  }
+}
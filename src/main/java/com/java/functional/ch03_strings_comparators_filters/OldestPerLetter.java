@@ -0,0 +1,50 @@
+package com.java.functional.ch03_strings_comparators_filters;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+public class OldestPerLetter {
+  public static void main(String[] args) {
+    final int count = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+    final int k = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+    final Random random = new Random(42);
+    final List<Person> people = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      people.add(new Person((char) ('A' + random.nextInt(26)) + "-" + i,
+          random.nextInt(1_000_000)));
+    }
+    final Comparator<Person> byAge =
+        Comparator.comparingInt(Person::getAge).thenComparing(Person::getName);
+
+    for (int run = 0; run < 3; run++) {
+      final Map<Character, List<Person>> sorted = time("groupingBy + sorted().limit()", () ->
+          people.stream()
+              .collect(Collectors.groupingBy(person -> person.getName().charAt(0)))
+              .entrySet().stream()
+              .collect(Collectors.toMap(Map.Entry::getKey, group -> group.getValue().stream()
+                  .sorted(byAge.reversed())
+                  .limit(k)
+                  .collect(Collectors.toList()))));
+      final Map<Character, List<Person>> top = time("topKPerGroup", () -> people.stream()
+          .collect(TopKCollectors.topKPerGroup(person -> person.getName().charAt(0), k, byAge)));
+      final Map<Character, List<Person>> parallelTop = time("topKPerGroup (parallel)",
+          () -> people.parallelStream().collect(
+              TopKCollectors.topKPerGroup(person -> person.getName().charAt(0), k, byAge)));
+      System.out.println(String.format("Run %d consistent: %b%n", run,
+          sorted.equals(top) && top.equals(parallelTop)));
+    }
+  }
+
+  private static <R> R time(final String label, final Supplier<R> query) {
+    final long start = System.nanoTime();
+    final R result = query.get();
+    final long millis = (System.nanoTime() - start) / 1_000_000;
+    System.out.println(String.format("%-32s %d ms", label, millis));
+    return result;
+  }
+}
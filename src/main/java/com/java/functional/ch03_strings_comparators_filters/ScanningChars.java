@@ -0,0 +1,56 @@
+package com.java.functional.ch03_strings_comparators_filters;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.function.IntSupplier;
+
+public class ScanningChars {
+  public static void main(String[] args) {
+    final int megabytes = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+    final Random random = new Random(42);
+    final String alphabet = "abcdefghijklmnopqrstuvwxyz 0123456789,.;\n";
+    final char[] chars = new char[megabytes << 20];
+    for (int i = 0; i < chars.length; i++) {
+      chars[i] = alphabet.charAt(random.nextInt(alphabet.length()));
+    }
+    final String text = new String(chars);
+    final byte[] bytes = text.getBytes(StandardCharsets.ISO_8859_1);
+    final ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length).put(bytes).flip();
+    final CharPredicate digit = CharPredicate.asciiDigit();
+    final char[] target = new char[text.length()];
+
+    for (int run = 0; run < 3; run++) {
+      final int boxed = time("chars().mapToObj(...).filter(isDigit)", bytes.length,
+          () -> (int) text.chars().mapToObj(ch -> Character.valueOf((char) ch))
+              .filter(Character::isDigit).count());
+      final int chars2 = time("chars().filter(isDigit)", bytes.length,
+          () -> (int) text.chars().filter(Character::isDigit).count());
+      final int sequence = time("countMatching(CharSequence)", bytes.length,
+          () -> CharScanning.countMatching(text, digit));
+      final int filtered = time("filterInto(CharSequence, char[])", bytes.length,
+          () -> CharScanning.filterInto(text, digit, target));
+      final int latin1 = time("countMatching(byte[])", bytes.length,
+          () -> CharScanning.countMatching(bytes, 0, bytes.length, digit));
+      final int buffer = time("countMatching(direct ByteBuffer)", bytes.length,
+          () -> CharScanning.countMatching(direct, digit));
+      final int swar = time("countAsciiDigits(byte[]) SWAR", bytes.length,
+          () -> CharScanning.countAsciiDigits(bytes, 0, bytes.length));
+      final int newlines = time("count(byte[], '\\n') SWAR", bytes.length,
+          () -> CharScanning.count(bytes, 0, bytes.length, (byte) '\n'));
+      System.out.println(String.format("Run %d consistent: %b%n", run,
+          boxed == chars2 && chars2 == sequence && sequence == filtered && filtered == latin1
+              && latin1 == buffer && buffer == swar
+              && newlines == (int) text.chars().filter(ch -> ch == '\n').count()));
+    }
+  }
+
+  private static int time(final String label, final int bytes, final IntSupplier scan) {
+    final long start = System.nanoTime();
+    final int result = scan.getAsInt();
+    final long nanos = System.nanoTime() - start;
+    System.out.println(String.format("%-40s %8.1f MB/s", label,
+        bytes / (1024.0 * 1024.0) / (nanos / 1e9)));
+    return result;
+  }
+}
@@ -0,0 +1,66 @@
+package com.java.functional.ch03_strings_comparators_filters;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+public class SearchingContent {
+  public static void main(String[] args) throws IOException {
+    final int megabytes = args.length > 0 ? Integer.parseInt(args[0]) : 512;
+    final Path file = Paths.get(args.length > 1 ? args[1] : "build/search-" + megabytes + "mb.log");
+    generateLog(file, megabytes);
+    final List<Path> files = List.of(file);
+    final double size = Files.size(file) / (1024.0 * 1024.0);
+
+    for (int run = 0; run < 3; run++) {
+      long start = System.nanoTime();
+      final long lines;
+      try (Stream<String> content = Files.lines(file)) {
+        lines = content.filter(line -> line.contains("ERROR")).count();
+      }
+      final long linesNanos = System.nanoTime() - start;
+
+      start = System.nanoTime();
+      final long literal = ContentSearch.searchLiteral(files.stream(), "ERROR").count();
+      final long literalNanos = System.nanoTime() - start;
+
+      start = System.nanoTime();
+      final long regex =
+          ContentSearch.searchRegex(files.stream(), Pattern.compile("ERROR \\d+")).count();
+      final long regexNanos = System.nanoTime() - start;
+
+      System.out.println(String.format(
+          "Run %d: Files.lines %d matches at %.0f MB/s, mapped literal %d at %.0f MB/s, "
+              + "mapped regex %d at %.0f MB/s",
+          run, lines, size * 1e9 / linesNanos, literal, size * 1e9 / literalNanos,
+          regex, size * 1e9 / regexNanos));
+    }
+  }
+
+  private static void generateLog(final Path file, final int megabytes) throws IOException {
+    if (Files.exists(file)) {
+      return;
+    }
+    Files.createDirectories(file.toAbsolutePath().getParent());
+    final Random random = new Random(42);
+    final long target = megabytes * 1024L * 1024L;
+    try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+      long written = 0;
+      while (written < target) {
+        final String line = String.format("2024-01-01T00:00:%02d %s %d request handled in %d ms",
+            random.nextInt(60), random.nextInt(1000) == 0 ? "ERROR" : "INFO",
+            random.nextInt(100_000), random.nextInt(5_000));
+        writer.write(line);
+        writer.newLine();
+        written += line.length() + 1;
+      }
+    }
+  }
+}
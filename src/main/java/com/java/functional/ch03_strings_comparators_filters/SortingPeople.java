@@ -0,0 +1,51 @@
+package com.java.functional.ch03_strings_comparators_filters;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+public class SortingPeople {
+  public static void main(String[] args) {
+    final int count = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+    final Random random = new Random(42);
+    final List<Person> people = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      people.add(new Person("P" + random.nextInt(count), random.nextInt(100)));
+    }
+    final Function<Person, String> byName = person -> person.getName();
+    final Function<Person, Integer> byAge = person -> person.getAge();
+
+    for (int run = 0; run < 3; run++) {
+      final List<Person> comparing = time("sorted(comparing(byAge).thenComparing(byName))",
+          () -> people.stream()
+              .sorted(Comparator.comparing(byAge).thenComparing(byName))
+              .collect(Collectors.toList()));
+      final List<Person> keySort = time("KeySort.comparingInt.thenComparing",
+          () -> people.stream().collect(
+              KeySort.comparingInt(Person::getAge).thenComparing(Person::getName)
+                  .toSortedList()));
+      final List<Person> parallelKeySort = time("KeySort ... parallel()",
+          () -> KeySort.comparingInt(Person::getAge).thenComparing(Person::getName).parallel()
+              .sort(people));
+      final List<Person> ageOnly = time("sorted(comparing(byAge))",
+          () -> people.stream().sorted(Comparator.comparing(byAge)).collect(Collectors.toList()));
+      final List<Person> ageOnlyKeySort = time("KeySort.comparingInt",
+          () -> KeySort.comparingInt(Person::getAge).sort(people));
+      System.out.println(String.format("Run %d consistent: %b%n", run,
+          comparing.equals(keySort) && keySort.equals(parallelKeySort)
+              && ageOnly.equals(ageOnlyKeySort)));
+    }
+  }
+
+  private static <R> R time(final String label, final Supplier<R> sort) {
+    final long start = System.nanoTime();
+    final R result = sort.get();
+    final long millis = (System.nanoTime() - start) / 1_000_000;
+    System.out.println(String.format("%-48s %d ms", label, millis));
+    return result;
+  }
+}
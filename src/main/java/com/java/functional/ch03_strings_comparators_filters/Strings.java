@@ -10,6 +10,7 @@ public class Strings {
     strings.iterateAsChar();
     strings.iterateAsChar2();
     strings.filtering();
+    strings.filteringWithoutBoxing();
   }
 
   private void iterateAsInt() {
@@ -48,4 +49,13 @@ public class Strings {
     str.chars().filter(Character::isDigit)
         .forEach(Strings::printChar);
   }
+
+  private void filteringWithoutBoxing() {
+    final String str = "w00t";
+
+    System.out.println("==== Print digits without boxing ====");
+    final char[] digits = new char[str.length()];
+    final int count = CharScanning.filterInto(str, CharPredicate.asciiDigit(), digits);
+    System.out.println(new String(digits, 0, count));
+  }
 }
@@ -0,0 +1,130 @@
+package com.java.functional.ch03_strings_comparators_filters;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collector;
+
+/**
+ * Collectors that keep only the {@code k} greatest elements by a comparator, using a bounded
+ * min-heap per group: O(n log k) time and O(groups * k) memory, with no {@code Optional}s. The
+ * heaps merge, so the collectors work on parallel streams. Results are greatest first.
+ */
+public class TopKCollectors {
+  private TopKCollectors() {
+  }
+
+  public static <T> Collector<T, ?, List<T>> topK(final int k,
+      final Comparator<? super T> comparator) {
+    checkK(k);
+    return Collector.of(
+        () -> new BoundedHeap<T>(k, comparator),
+        BoundedHeap::offer,
+        BoundedHeap::mergeWith,
+        BoundedHeap::toSortedList);
+  }
+
+  public static <T, K> Collector<T, ?, Map<K, List<T>>> topKPerGroup(
+      final Function<? super T, ? extends K> classifier, final int k,
+      final Comparator<? super T> comparator) {
+    checkK(k);
+    return Collector.<T, Map<K, BoundedHeap<T>>, Map<K, List<T>>>of(
+        HashMap::new,
+        (heaps, element) -> heaps
+            .computeIfAbsent(classifier.apply(element), key -> new BoundedHeap<>(k, comparator))
+            .offer(element),
+        (left, right) -> {
+          right.forEach((key, heap) -> left.merge(key, heap, BoundedHeap::mergeWith));
+          return left;
+        },
+        heaps -> {
+          final Map<K, List<T>> top = new HashMap<>();
+          heaps.forEach((key, heap) -> top.put(key, heap.toSortedList()));
+          return top;
+        });
+  }
+
+  private static void checkK(final int k) {
+    if (k < 1) {
+      throw new IllegalArgumentException("k must be at least 1: " + k);
+    }
+  }
+
+  private static class BoundedHeap<T> {
+    private final Comparator<? super T> comparator;
+    private final Object[] elements;
+    private int size;
+
+    BoundedHeap(final int capacity, final Comparator<? super T> comparator) {
+      this.comparator = comparator;
+      elements = new Object[capacity];
+    }
+
+    void offer(final T element) {
+      if (size < elements.length) {
+        elements[size] = element;
+        siftUp(size++);
+      } else if (comparator.compare(element, at(0)) > 0) {
+        elements[0] = element;
+        siftDown(0);
+      }
+    }
+
+    BoundedHeap<T> mergeWith(final BoundedHeap<T> other) {
+      for (int i = 0; i < other.size; i++) {
+        offer(other.at(i));
+      }
+      return this;
+    }
+
+    @SuppressWarnings("unchecked")
+    List<T> toSortedList() {
+      final T[] sorted = (T[]) Arrays.copyOf(elements, size);
+      Arrays.sort(sorted, comparator.reversed());
+      return new ArrayList<>(Arrays.asList(sorted));
+    }
+
+    @SuppressWarnings("unchecked")
+    private T at(final int index) {
+      return (T) elements[index];
+    }
+
+    private void siftUp(int index) {
+      while (index > 0) {
+        final int parent = (index - 1) >>> 1;
+        if (comparator.compare(at(index), at(parent)) >= 0) {
+          return;
+        }
+        swap(index, parent);
+        index = parent;
+      }
+    }
+
+    private void siftDown(int index) {
+      while (true) {
+        final int left = 2 * index + 1;
+        if (left >= size) {
+          return;
+        }
+        final int right = left + 1;
+        final int smallest =
+            right < size && comparator.compare(at(right), at(left)) < 0 ? right : left;
+        if (comparator.compare(at(smallest), at(index)) >= 0) {
+          return;
+        }
+        swap(index, smallest);
+        index = smallest;
+      }
+    }
+
+    private void swap(final int first, final int second) {
+      final Object element = elements[first];
+      elements[first] = elements[second];
+      elements[second] = element;
+    }
+  }
+}
@@ -0,0 +1,58 @@
+package com.java.functional.ch03_strings_comparators_filters;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.stream.Stream;
+
+public class WalkingDirectories {
+  private static final int FILES_PER_DIRECTORY = 1_000;
+
+  public static void main(String[] args) throws IOException {
+    final int files = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+    final Path root = Paths.get(args.length > 1 ? args[1] : "build/generated-tree-" + files);
+    generateTree(root, files);
+
+    for (int run = 0; run < 3; run++) {
+      long start = System.nanoTime();
+      final long walked;
+      try (Stream<Path> paths = Files.walk(root)) {
+        walked = paths.filter(path -> path.getFileName().toString().endsWith(".java"))
+            .filter(Files::isRegularFile)
+            .count();
+      }
+      final long filesWalkNanos = System.nanoTime() - start;
+
+      start = System.nanoTime();
+      final long walker;
+      try (Stream<Path> paths = new DirectoryWalker()
+          .extension(".java")
+          .attributes(BasicFileAttributes::isRegularFile)
+          .walk(root)) {
+        walker = paths.count();
+      }
+      final long walkerNanos = System.nanoTime() - start;
+
+      System.out.println(String.format(
+          "Run %d: Files.walk found %d in %d ms, DirectoryWalker found %d in %d ms",
+          run, walked, filesWalkNanos / 1_000_000, walker, walkerNanos / 1_000_000));
+    }
+  }
+
+  private static void generateTree(final Path root, final int files) throws IOException {
+    if (Files.isDirectory(root)) {
+      return;
+    }
+    for (int i = 0; i < files; i++) {
+      final int directory = i / FILES_PER_DIRECTORY;
+      final Path parent = root.resolve("d" + directory / FILES_PER_DIRECTORY)
+          .resolve("d" + directory % FILES_PER_DIRECTORY);
+      if (i % FILES_PER_DIRECTORY == 0) {
+        Files.createDirectories(parent);
+      }
+      Files.createFile(parent.resolve("f" + i + (i % 4 == 0 ? ".java" : ".txt")));
+    }
+  }
+}
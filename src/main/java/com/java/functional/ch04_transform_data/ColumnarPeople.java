@@ -0,0 +1,66 @@
+package com.java.functional.ch04_transform_data;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+
+public class ColumnarPeople {
+  private static final String[] FIRST_NAMES = {"John", "Sara", "Mike", "Dev", "Nancy", "Jill",
+      "Ana", "Omar", "Wei", "Priya", "Lars", "Emma", "Noah", "Yuki", "Ravi", "Zoe"};
+
+  public static void main(String[] args) {
+    final int count = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+    final Random random = new Random(42);
+
+    final long beforeRecords = usedMemory();
+    final List<Person> people = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      final String first = new String(FIRST_NAMES[random.nextInt(FIRST_NAMES.length)]);
+      final String last = "L" + random.nextInt(50_000);
+      final List<String> emails = new ArrayList<>();
+      for (int e = random.nextInt(4); e > 0; e--) {
+        emails.add(first.toLowerCase() + "." + last.toLowerCase() + e + "@example.com");
+      }
+      people.add(new Person(first, last, List.copyOf(emails)));
+    }
+    final long recordBytes = usedMemory() - beforeRecords;
+
+    final PersonTable table = time("PersonTable.toTable", () -> people.stream()
+        .collect(PersonTable.toTable()));
+    System.out.println(String.format("Records: ~%.1f MB per million rows (heap delta)",
+        recordBytes / (count / 1e6) / (1 << 20)));
+    System.out.println(String.format("Table:   ~%.1f MB per million rows, %d distinct names%n",
+        table.memoryBytesPerMillionRows() / (1 << 20), table.distinctNames()));
+
+    for (int run = 0; run < 3; run++) {
+      final double records = time("records: mapToInt(emailAddress().size())",
+          () -> people.stream().mapToInt(person -> person.emailAddress().size()).average()
+              .orElse(0));
+      final double columns = time("table: emailCounts()",
+          () -> table.emailCounts().average().orElse(0));
+      final double view = time("table: stream() view",
+          () -> table.stream().mapToInt(person -> person.emailAddress().size()).average()
+              .orElse(0));
+      System.out.println(String.format("Run %d consistent: %b%n", run,
+          records == columns && columns == view
+              && table.person(count / 2).equals(people.get(count / 2))));
+    }
+  }
+
+  private static long usedMemory() {
+    final Runtime runtime = Runtime.getRuntime();
+    for (int i = 0; i < 3; i++) {
+      System.gc();
+    }
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+
+  private static <R> R time(final String label, final Supplier<R> query) {
+    final long start = System.nanoTime();
+    final R result = query.get();
+    final long millis = (System.nanoTime() - start) / 1_000_000;
+    System.out.println(String.format("%-44s %d ms", label, millis));
+    return result;
+  }
+}
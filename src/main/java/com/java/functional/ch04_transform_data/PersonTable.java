@@ -0,0 +1,238 @@
+package com.java.functional.ch04_transform_data;
+
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collector;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Column-oriented storage for {@link Person} rows.
+ *
+ * <p>First and last names are dictionary-encoded: each row holds an {@code int} code into one
+ * shared array of distinct names. Email addresses are flattened in compressed sparse row (CSR)
+ * form: {@code emailOffsets[row]} to {@code emailOffsets[row + 1]} are the row's emails, and email
+ * {@code e} is the UTF-8 bytes of the shared arena between {@code emailEnds[e - 1]} and
+ * {@code emailEnds[e]}. Queries such as {@link #emailCounts()} never build a {@code Person};
+ * {@link #stream()} materializes them on demand for code that expects records.
+ */
+public class PersonTable {
+  private final String[] names;
+  private final int[] firstNames;
+  private final int[] lastNames;
+  private final int[] emailOffsets;
+  private final int[] emailEnds;
+  private final byte[] arena;
+
+  private PersonTable(final Builder builder) {
+    final int size = builder.size;
+    final int emails = builder.emailOffsets[size];
+    names = builder.names.toArray(new String[0]);
+    firstNames = Arrays.copyOf(builder.firstNames, size);
+    lastNames = Arrays.copyOf(builder.lastNames, size);
+    emailOffsets = Arrays.copyOf(builder.emailOffsets, size + 1);
+    emailEnds = Arrays.copyOf(builder.emailEnds, emails);
+    arena = Arrays.copyOf(builder.arena, emails == 0 ? 0 : builder.emailEnds[emails - 1]);
+  }
+
+  public static PersonTable of(final Collection<Person> people) {
+    final Builder builder = new Builder();
+    people.forEach(builder::add);
+    return builder.build();
+  }
+
+  public static Collector<Person, ?, PersonTable> toTable() {
+    return Collector.of(Builder::new, Builder::add, Builder::addAll, Builder::build);
+  }
+
+  public int size() {
+    return firstNames.length;
+  }
+
+  public String firstName(final int row) {
+    return names[firstNames[row]];
+  }
+
+  public String lastName(final int row) {
+    return names[lastNames[row]];
+  }
+
+  /** The dictionary code of the row's first name; equal names have equal codes. */
+  public int firstNameCode(final int row) {
+    return firstNames[row];
+  }
+
+  public int lastNameCode(final int row) {
+    return lastNames[row];
+  }
+
+  public int distinctNames() {
+    return names.length;
+  }
+
+  public int emailCount(final int row) {
+    return emailOffsets[row + 1] - emailOffsets[row];
+  }
+
+  public int totalEmailCount() {
+    return emailEnds.length;
+  }
+
+  public IntStream emailCounts() {
+    return IntStream.range(0, size()).map(this::emailCount);
+  }
+
+  public String email(final int row, final int index) {
+    final int count = emailCount(row);
+    if (index < 0 || index >= count) {
+      throw new IndexOutOfBoundsException("Index " + index + " out of bounds for " + count);
+    }
+    final int email = emailOffsets[row] + index;
+    final int start = email == 0 ? 0 : emailEnds[email - 1];
+    return new String(arena, start, emailEnds[email] - start, StandardCharsets.UTF_8);
+  }
+
+  /** The row's emails, decoded lazily. */
+  public List<String> emails(final int row) {
+    return new AbstractList<>() {
+      @Override
+      public String get(final int index) {
+        return email(row, index);
+      }
+
+      @Override
+      public int size() {
+        return emailCount(row);
+      }
+    };
+  }
+
+  public Person person(final int row) {
+    return new Person(firstName(row), lastName(row), List.copyOf(emails(row)));
+  }
+
+  public Stream<Person> stream() {
+    return IntStream.range(0, size()).mapToObj(this::person);
+  }
+
+  /** Approximate heap footprint of the columns, the dictionary and the arena. */
+  public long estimatedMemoryBytes() {
+    long bytes = arrayBytes(names.length, 4) + arrayBytes(firstNames.length, 4)
+        + arrayBytes(lastNames.length, 4) + arrayBytes(emailOffsets.length, 4)
+        + arrayBytes(emailEnds.length, 4) + arrayBytes(arena.length, 1);
+    for (String name : names) {
+      bytes += 24 + arrayBytes(name.length(), 1);
+    }
+    return bytes;
+  }
+
+  public double memoryBytesPerMillionRows() {
+    return size() == 0 ? 0 : estimatedMemoryBytes() * 1_000_000.0 / size();
+  }
+
+  private static long arrayBytes(final int length, final int elementBytes) {
+    return (16 + (long) length * elementBytes + 7) & ~7L;
+  }
+
+  public static class Builder {
+    private final Map<String, Integer> codes = new HashMap<>();
+    private final List<String> names = new ArrayList<>();
+    private int size;
+    private int[] firstNames = new int[16];
+    private int[] lastNames = new int[16];
+    private int[] emailOffsets = new int[17];
+    private int[] emailEnds = new int[16];
+    private byte[] arena = new byte[256];
+
+    public Builder add(final Person person) {
+      return add(person.firstName(), person.lastName(), person.emailAddress());
+    }
+
+    public Builder add(final String firstName, final String lastName,
+        final List<String> emailAddresses) {
+      if (size == firstNames.length) {
+        firstNames = Arrays.copyOf(firstNames, size * 2);
+        lastNames = Arrays.copyOf(lastNames, size * 2);
+        emailOffsets = Arrays.copyOf(emailOffsets, size * 2 + 1);
+      }
+      firstNames[size] = code(firstName);
+      lastNames[size] = code(lastName);
+      int emails = emailOffsets[size];
+      for (String emailAddress : emailAddresses) {
+        addEmail(emails++, emailAddress.getBytes(StandardCharsets.UTF_8));
+      }
+      emailOffsets[++size] = emails;
+      return this;
+    }
+
+    public PersonTable build() {
+      return new PersonTable(this);
+    }
+
+    /**
+     * Appends the other builder's rows without decoding them: its dictionary codes are remapped
+     * into this dictionary, and its offsets, email ends and arena bytes are copied in bulk.
+     */
+    private Builder addAll(final Builder other) {
+      final int[] remap = new int[other.names.size()];
+      for (int code = 0; code < remap.length; code++) {
+        remap[code] = code(other.names.get(code));
+      }
+      final int rows = Math.addExact(size, other.size);
+      if (rows > firstNames.length) {
+        firstNames = Arrays.copyOf(firstNames, rows);
+        lastNames = Arrays.copyOf(lastNames, rows);
+        emailOffsets = Arrays.copyOf(emailOffsets, rows + 1);
+      }
+      final int emailBase = emailOffsets[size];
+      final int arenaBase = emailBase == 0 ? 0 : emailEnds[emailBase - 1];
+      for (int row = 0; row < other.size; row++) {
+        firstNames[size + row] = remap[other.firstNames[row]];
+        lastNames[size + row] = remap[other.lastNames[row]];
+        emailOffsets[size + row + 1] = emailBase + other.emailOffsets[row + 1];
+      }
+      final int otherEmails = other.emailOffsets[other.size];
+      final int otherBytes = otherEmails == 0 ? 0 : other.emailEnds[otherEmails - 1];
+      final int emails = Math.addExact(emailBase, otherEmails);
+      final int end = Math.addExact(arenaBase, otherBytes);
+      if (emails > emailEnds.length) {
+        emailEnds = Arrays.copyOf(emailEnds, emails);
+      }
+      if (end > arena.length) {
+        arena = Arrays.copyOf(arena, end);
+      }
+      for (int email = 0; email < otherEmails; email++) {
+        emailEnds[emailBase + email] = arenaBase + other.emailEnds[email];
+      }
+      System.arraycopy(other.arena, 0, arena, arenaBase, otherBytes);
+      size = rows;
+      return this;
+    }
+
+    private int code(final String name) {
+      return codes.computeIfAbsent(name, key -> {
+        names.add(key);
+        return names.size() - 1;
+      });
+    }
+
+    private void addEmail(final int email, final byte[] bytes) {
+      final int start = email == 0 ? 0 : emailEnds[email - 1];
+      final int end = Math.addExact(start, bytes.length);
+      if (email == emailEnds.length) {
+        emailEnds = Arrays.copyOf(emailEnds, email * 2);
+      }
+      if (end > arena.length) {
+        arena = Arrays.copyOf(arena, Math.max(end, arena.length * 2));
+      }
+      System.arraycopy(bytes, 0, arena, start, bytes.length);
+      emailEnds[email] = end;
+    }
+  }
+}
@@ -10,6 +10,8 @@ public class Statistics {
     app.method2();
     app.method3();
     app.method4();
+    app.method5();
+    app.method6();
   }
 
   private void method1() {
@@ -47,4 +49,21 @@ public class Statistics {
     System.out.println("Max number of email addresses: " + statistics.getMax());
     System.out.println("Min number of email addresses: " + statistics.getMin());
   }
+
+  private void method5() {
+    System.out.println("Evolution 5 - single pass with variance and quantiles");
+    var statistics = Person.SAMPLE_DATA.stream()
+        .collect(SummaryStatistics.summarizing(person -> person.emailAddress().size()));
+    System.out.println("Average number of email addresses: " + statistics.getMean());
+    System.out.println("Variance of email addresses: " + statistics.getVariance());
+    System.out.println("Median number of email addresses: " + statistics.getMedian());
+    System.out.println("p99 number of email addresses: " + statistics.getQuantile(0.99));
+  }
+
+  private void method6() {
+    System.out.println("Evolution 6 - columnar table, no Person records");
+    var table = PersonTable.of(Person.SAMPLE_DATA);
+    System.out.println("Average number of email addresses: "
+        + table.emailCounts().average().orElse(0));
+  }
 }
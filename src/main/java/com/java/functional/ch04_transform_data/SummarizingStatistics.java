@@ -0,0 +1,55 @@
+package com.java.functional.ch04_transform_data;
+
+import java.util.DoubleSummaryStatistics;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public class SummarizingStatistics {
+  public static void main(String[] args) {
+    final int count = args.length > 0 ? Integer.parseInt(args[0]) : 5_000_000;
+    final Random random = new Random(42);
+    final List<String> emails = List.of("a@example.com", "b@example.com", "c@example.com");
+    final List<Person> people = IntStream.range(0, count)
+        .mapToObj(i -> new Person("F" + i, "L" + i,
+            emails.subList(0, Math.min(3, (int) Math.abs(random.nextGaussian() * 1.5)))))
+        .collect(Collectors.toList());
+
+    for (int run = 0; run < 3; run++) {
+      time("four passes (sum, average, min, max)", () -> {
+        final double sum = people.stream().mapToDouble(person -> person.emailAddress().size())
+            .sum();
+        final double average = people.stream()
+            .mapToDouble(person -> person.emailAddress().size()).average().orElse(0);
+        final double min = people.stream().mapToDouble(person -> person.emailAddress().size())
+            .min().orElse(0);
+        final double max = people.stream().mapToDouble(person -> person.emailAddress().size())
+            .max().orElse(0);
+        return String.format("sum=%.0f avg=%.4f min=%.0f max=%.0f", sum, average, min, max);
+      });
+      final DoubleSummaryStatistics summarizing = time("summarizingDouble", () -> people.stream()
+          .collect(Collectors.summarizingDouble(person -> person.emailAddress().size())));
+      final SummaryStatistics single = time("SummaryStatistics.summarizing", () -> people.stream()
+          .collect(SummaryStatistics.summarizing(person -> person.emailAddress().size())));
+      final SummaryStatistics parallel = time("SummaryStatistics.summarizing (parallel)",
+          () -> people.parallelStream()
+              .collect(SummaryStatistics.summarizing(person -> person.emailAddress().size())));
+      System.out.println(single);
+      System.out.println(String.format("Run %d consistent: %b%n", run,
+          single.getCount() == summarizing.getCount()
+              && Math.abs(single.getMean() - summarizing.getAverage()) < 1e-9
+              && Math.abs(single.getVariance() - parallel.getVariance()) < 1e-9
+              && single.getQuantile(0.99) == parallel.getQuantile(0.99)));
+    }
+  }
+
+  private static <R> R time(final String label, final Supplier<R> summary) {
+    final long start = System.nanoTime();
+    final R result = summary.get();
+    final long millis = (System.nanoTime() - start) / 1_000_000;
+    System.out.println(String.format("%-44s %d ms", label, millis));
+    return result;
+  }
+}
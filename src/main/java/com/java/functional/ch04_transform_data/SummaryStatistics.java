@@ -0,0 +1,210 @@
+package com.java.functional.ch04_transform_data;
+
+import java.util.function.DoubleConsumer;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Collector;
+
+/**
+ * A single-pass, mergeable alternative to {@code DoubleSummaryStatistics} that also tracks the
+ * variance (Welford) and approximate quantiles.
+ *
+ * <p>Quantiles come from a log-linear histogram in the style of HdrHistogram: every power of two
+ * is split into 128 buckets, so a reported quantile is within 1/128 of the true value, and values
+ * with up to eight significant bits (such as small counts) are reported exactly. Bucket arrays
+ * are allocated per power of two on demand, which bounds memory to the range of the data rather
+ * than its size.
+ *
+ * <p>Like {@code DoubleSummaryStatistics} this class is not thread-safe. It can be fed
+ * incrementally with {@link #accept(double)}; concurrent feeds keep one instance per thread and
+ * {@link #combine(SummaryStatistics)} them, which is what the parallel collector does.
+ */
+public class SummaryStatistics implements DoubleConsumer {
+  private static final int SUB_BUCKET_BITS = 7;
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  private static final int EXPONENTS = 1 << 11;
+  private static final int MANTISSA_SHIFT = 52 - SUB_BUCKET_BITS;
+
+  private long count;
+  private double mean;
+  private double squaredDeviations;
+  private double sum;
+  private double min = Double.POSITIVE_INFINITY;
+  private double max = Double.NEGATIVE_INFINITY;
+  private long zeros;
+  private final long[][] positive = new long[EXPONENTS][];
+  private final long[][] negative = new long[EXPONENTS][];
+
+  public static <T> Collector<T, ?, SummaryStatistics> summarizing(
+      final ToDoubleFunction<? super T> mapper) {
+    return Collector.of(SummaryStatistics::new,
+        (statistics, element) -> statistics.accept(mapper.applyAsDouble(element)),
+        SummaryStatistics::combine, Collector.Characteristics.UNORDERED);
+  }
+
+  @Override
+  public void accept(final double value) {
+    if (Double.isNaN(value)) {
+      throw new IllegalArgumentException("NaN cannot be summarized");
+    }
+    count++;
+    final double delta = value - mean;
+    mean += delta / count;
+    squaredDeviations += delta * (value - mean);
+    sum += value;
+    min = Math.min(min, value);
+    max = Math.max(max, value);
+    record(value);
+  }
+
+  public SummaryStatistics combine(final SummaryStatistics other) {
+    if (other.count == 0) {
+      return this;
+    }
+    final long combined = count + other.count;
+    final double delta = other.mean - mean;
+    mean += delta * other.count / combined;
+    squaredDeviations += other.squaredDeviations
+        + delta * delta * ((double) count * other.count / combined);
+    count = combined;
+    sum += other.sum;
+    min = Math.min(min, other.min);
+    max = Math.max(max, other.max);
+    zeros += other.zeros;
+    add(positive, other.positive);
+    add(negative, other.negative);
+    return this;
+  }
+
+  /** A detached copy, e.g. to report on a feed that keeps accepting values. */
+  public SummaryStatistics copy() {
+    return new SummaryStatistics().combine(this);
+  }
+
+  public long getCount() {
+    return count;
+  }
+
+  public double getSum() {
+    return sum;
+  }
+
+  public double getMean() {
+    return count == 0 ? 0 : mean;
+  }
+
+  /** The population variance. */
+  public double getVariance() {
+    return count == 0 ? 0 : squaredDeviations / count;
+  }
+
+  public double getSampleVariance() {
+    return count < 2 ? 0 : squaredDeviations / (count - 1);
+  }
+
+  public double getStandardDeviation() {
+    return Math.sqrt(getVariance());
+  }
+
+  public double getMin() {
+    return min;
+  }
+
+  public double getMax() {
+    return max;
+  }
+
+  /** The nearest-rank quantile for {@code 0 <= quantile <= 1}, or NaN if nothing was accepted. */
+  public double getQuantile(final double quantile) {
+    if (!(quantile >= 0 && quantile <= 1)) {
+      throw new IllegalArgumentException("quantile must be between 0 and 1: " + quantile);
+    }
+    if (count == 0) {
+      return Double.NaN;
+    }
+    long remaining = Math.max(1, (long) Math.ceil(quantile * count));
+    if (remaining == 1) {
+      return min;
+    }
+    if (remaining == count) {
+      return max;
+    }
+    for (int exponent = EXPONENTS - 1; exponent >= 0; exponent--) {
+      final long[] buckets = negative[exponent];
+      if (buckets == null) {
+        continue;
+      }
+      for (int sub = SUB_BUCKETS - 1; sub >= 0; sub--) {
+        remaining -= buckets[sub];
+        if (remaining <= 0) {
+          return clamp(-lowerBound(exponent, sub));
+        }
+      }
+    }
+    remaining -= zeros;
+    if (remaining <= 0) {
+      return clamp(0);
+    }
+    for (int exponent = 0; exponent < EXPONENTS; exponent++) {
+      final long[] buckets = positive[exponent];
+      if (buckets == null) {
+        continue;
+      }
+      for (int sub = 0; sub < SUB_BUCKETS; sub++) {
+        remaining -= buckets[sub];
+        if (remaining <= 0) {
+          return clamp(lowerBound(exponent, sub));
+        }
+      }
+    }
+    return max;
+  }
+
+  public double getMedian() {
+    return getQuantile(0.5);
+  }
+
+  @Override
+  public String toString() {
+    return String.format(
+        "%s{count=%d, mean=%f, stddev=%f, min=%f, p50=%f, p99=%f, max=%f}",
+        getClass().getSimpleName(), count, getMean(), getStandardDeviation(), min,
+        getQuantile(0.5), getQuantile(0.99), max);
+  }
+
+  private void record(final double value) {
+    if (value == 0) {
+      zeros++;
+      return;
+    }
+    final int key = (int) (Double.doubleToRawLongBits(Math.abs(value)) >>> MANTISSA_SHIFT);
+    final long[][] histogram = value > 0 ? positive : negative;
+    final int exponent = key >>> SUB_BUCKET_BITS;
+    if (histogram[exponent] == null) {
+      histogram[exponent] = new long[SUB_BUCKETS];
+    }
+    histogram[exponent][key & (SUB_BUCKETS - 1)]++;
+  }
+
+  private static void add(final long[][] target, final long[][] source) {
+    for (int exponent = 0; exponent < EXPONENTS; exponent++) {
+      if (source[exponent] == null) {
+        continue;
+      }
+      if (target[exponent] == null) {
+        target[exponent] = source[exponent].clone();
+      } else {
+        for (int sub = 0; sub < SUB_BUCKETS; sub++) {
+          target[exponent][sub] += source[exponent][sub];
+        }
+      }
+    }
+  }
+
+  private static double lowerBound(final int exponent, final int sub) {
+    return Double.longBitsToDouble(((long) exponent << SUB_BUCKET_BITS | sub) << MANTISSA_SHIFT);
+  }
+
+  private double clamp(final double value) {
+    return Math.max(min, Math.min(max, value));
+  }
+}
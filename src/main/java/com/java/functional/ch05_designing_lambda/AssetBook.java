@@ -0,0 +1,164 @@
+package com.java.functional.ch05_designing_lambda;
+
+import com.java.functional.ch05_designing_lambda.Asset.AssetType;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Column-oriented store of assets: one {@code byte} type ordinal and one {@code long} value per
+ * asset, instead of one {@link Asset} object each. Totals per type are computed in a single pass
+ * with {@code long} accumulation that throws {@link ArithmeticException} on overflow.
+ */
+public class AssetBook {
+  private static final AssetType[] TYPES = AssetType.values();
+  private static final int PARALLEL_THRESHOLD = 1 << 16;
+
+  private byte[] types;
+  private long[] values;
+  private int size;
+
+  public AssetBook() {
+    this(16);
+  }
+
+  public AssetBook(final int initialCapacity) {
+    types = new byte[Math.max(1, initialCapacity)];
+    values = new long[types.length];
+  }
+
+  public static AssetBook of(final List<Asset> assets) {
+    final AssetBook book = new AssetBook(assets.size());
+    book.addAll(assets);
+    return book;
+  }
+
+  public AssetBook add(final AssetType type, final long value) {
+    ensureCapacity(size + 1);
+    types[size] = (byte) type.ordinal();
+    values[size] = value;
+    size++;
+    return this;
+  }
+
+  public AssetBook addAll(final List<Asset> assets) {
+    ensureCapacity(size + assets.size());
+    assets.forEach(asset -> {
+      types[size] = (byte) asset.getType().ordinal();
+      values[size] = asset.getValue();
+      size++;
+    });
+    return this;
+  }
+
+  public AssetBook addAll(final byte[] typeOrdinals, final long[] assetValues) {
+    if (typeOrdinals.length != assetValues.length) {
+      throw new IllegalArgumentException("types and values must have the same length");
+    }
+    for (byte ordinal : typeOrdinals) {
+      if (ordinal < 0 || ordinal >= TYPES.length) {
+        throw new IllegalArgumentException("Unknown asset type ordinal " + ordinal);
+      }
+    }
+    ensureCapacity(size + typeOrdinals.length);
+    System.arraycopy(typeOrdinals, 0, types, size, typeOrdinals.length);
+    System.arraycopy(assetValues, 0, values, size, assetValues.length);
+    size += typeOrdinals.length;
+    return this;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public AssetType typeAt(final int index) {
+    return TYPES[types[checkIndex(index)]];
+  }
+
+  public long valueAt(final int index) {
+    return values[checkIndex(index)];
+  }
+
+  public EnumMap<AssetType, Long> totalsByType() {
+    return toEnumMap(sum(types, values, 0, size));
+  }
+
+  public EnumMap<AssetType, Long> parallelTotalsByType() {
+    return parallelTotalsByType(ForkJoinPool.commonPool());
+  }
+
+  public EnumMap<AssetType, Long> parallelTotalsByType(final ForkJoinPool pool) {
+    return toEnumMap(pool.invoke(new TotalsTask(types, values, 0, size)));
+  }
+
+  public long total() {
+    return totalsByType().values().stream().reduce(0L, Math::addExact);
+  }
+
+  private static long[] sum(final byte[] types, final long[] values, final int from,
+      final int to) {
+    final long[] totals = new long[TYPES.length];
+    for (int i = from; i < to; i++) {
+      totals[types[i]] = Math.addExact(totals[types[i]], values[i]);
+    }
+    return totals;
+  }
+
+  private static EnumMap<AssetType, Long> toEnumMap(final long[] totals) {
+    final EnumMap<AssetType, Long> totalsByType = new EnumMap<>(AssetType.class);
+    for (AssetType type : TYPES) {
+      totalsByType.put(type, totals[type.ordinal()]);
+    }
+    return totalsByType;
+  }
+
+  private int checkIndex(final int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException(index);
+    }
+    return index;
+  }
+
+  private void ensureCapacity(final int capacity) {
+    if (capacity > types.length) {
+      final int newCapacity = (int) Math.min(Integer.MAX_VALUE - 8,
+          Math.max(capacity, (long) types.length * 2));
+      types = Arrays.copyOf(types, newCapacity);
+      values = Arrays.copyOf(values, newCapacity);
+    }
+  }
+
+  private static class TotalsTask extends RecursiveTask<long[]> {
+    private static final long serialVersionUID = 1L;
+
+    private final byte[] types;
+    private final long[] values;
+    private final int from;
+    private final int to;
+
+    TotalsTask(final byte[] types, final long[] values, final int from, final int to) {
+      this.types = types;
+      this.values = values;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected long[] compute() {
+      if (to - from <= PARALLEL_THRESHOLD) {
+        return sum(types, values, from, to);
+      }
+      final int middle = (from + to) >>> 1;
+      final TotalsTask left = new TotalsTask(types, values, from, middle);
+      left.fork();
+      final long[] right = new TotalsTask(types, values, middle, to).compute();
+      final long[] totals = left.join();
+      for (int i = 0; i < totals.length; i++) {
+        totals[i] = Math.addExact(totals[i], right[i]);
+      }
+      return totals;
+    }
+  }
+}
@@ -0,0 +1,44 @@
+package com.java.functional.ch05_designing_lambda;
+
+import com.java.functional.ch05_designing_lambda.Asset.AssetType;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Random;
+
+public class AssetBookValuation {
+  public static void main(String[] args) {
+    final int count = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+    final Random random = new Random(42);
+    final List<Asset> assets = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      assets.add(new Asset(random.nextBoolean() ? AssetType.BOND : AssetType.STOCK,
+          random.nextInt(1_000_000)));
+    }
+    final AssetBook book = AssetBook.of(assets);
+
+    for (int run = 0; run < 5; run++) {
+      long start = System.nanoTime();
+      final long all = AssetUtility.totalAssetValues(assets, asset -> true);
+      final long bonds =
+          AssetUtility.totalAssetValues(assets, asset -> asset.getType() == AssetType.BOND);
+      final long stocks =
+          AssetUtility.totalAssetValues(assets, asset -> asset.getType() == AssetType.STOCK);
+      final long streamNanos = System.nanoTime() - start;
+
+      start = System.nanoTime();
+      final EnumMap<AssetType, Long> totals = book.totalsByType();
+      final long singlePassNanos = System.nanoTime() - start;
+
+      start = System.nanoTime();
+      final EnumMap<AssetType, Long> parallelTotals = book.parallelTotalsByType();
+      final long parallelNanos = System.nanoTime() - start;
+
+      System.out.println(String.format(
+          "Run %d: three streams %d ms, single pass %d ms, parallel %d ms, consistent: %b",
+          run, streamNanos / 1_000_000, singlePassNanos / 1_000_000, parallelNanos / 1_000_000,
+          totals.equals(parallelTotals) && totals.get(AssetType.BOND) == bonds
+              && totals.get(AssetType.STOCK) == stocks && bonds + stocks == all));
+    }
+  }
+}
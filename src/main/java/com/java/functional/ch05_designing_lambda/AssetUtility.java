@@ -2,10 +2,32 @@ package com.java.functional.ch05_designing_lambda;
 
 import java.util.List;
 import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
 
 public class AssetUtility {
-  public static int totalAssetValues(final List<Asset> assets,
+  public static long totalAssetValues(final List<Asset> assets,
       Predicate<Asset> assetSelector) {
-    return assets.stream().filter(assetSelector).mapToInt(Asset::getValue).sum();
+    return assets.stream().filter(assetSelector).mapToLong(Asset::getValue).sum();
+  }
+
+  /** As above, on the common pool. */
+  public static long parallelTotalAssetValues(final List<Asset> assets,
+      final Predicate<Asset> assetSelector) {
+    return assets.parallelStream().filter(assetSelector).mapToLong(Asset::getValue).sum();
+  }
+
+  /** As above, with each stage reported to {@code probe}; a disabled probe adds nothing. */
+  public static long totalAssetValues(final List<Asset> assets,
+      Predicate<Asset> assetSelector, final PipelineProbe probe) {
+    return probe.source("assets", assets.stream())
+        .filter(probe.filter("selector", assetSelector))
+        .mapToLong(probe.mapToLong("value", Asset::getValue))
+        .sum();
+  }
+
+  /** Compiles the same pipeline once, for selectors that are evaluated many times over. */
+  public static ToLongFunction<List<Asset>> compiledTotalAssetValues(
+      final Predicate<Asset> assetSelector) {
+    return Query.from(Asset.class).filter(assetSelector).mapToLong(Asset::getValue).sum();
   }
 }
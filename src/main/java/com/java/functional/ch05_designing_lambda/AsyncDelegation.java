@@ -0,0 +1,75 @@
+package com.java.functional.ch05_designing_lambda;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+public class AsyncDelegation {
+  public static void main(String[] args) throws IOException {
+    final int requests = args.length > 0 ? Integer.parseInt(args[0]) : 2_000;
+    final ExecutorService stubExecutor = Executors.newFixedThreadPool(8);
+    final HttpServer stub = startStub(stubExecutor);
+    try {
+      final FinanceDataClient client = new FinanceDataClient(
+          URI.create("http://localhost:" + stub.getAddress().getPort() + "/api/"), "demo");
+
+      System.out.println(String.format("100 shares of Apple worth: $%.2f",
+          client.getPrice("AAPL").join().multiply(BigDecimal.valueOf(100))));
+      System.out.println("Batched quotes: "
+          + client.getPrices(List.of("AAPL", "GOOG", "MSFT")).join());
+
+      final long start = System.nanoTime();
+      final List<CompletableFuture<BigDecimal>> prices = IntStream.range(0, requests)
+          .mapToObj(i -> client.getPrice("T" + i))
+          .collect(Collectors.toList());
+      CompletableFuture.allOf(prices.toArray(CompletableFuture[]::new)).join();
+      final long nanos = System.nanoTime() - start;
+      System.out.println(String.format("%d async lookups in %d ms (%.0f requests/s)",
+          requests, nanos / 1_000_000, requests * 1e9 / nanos));
+    } finally {
+      stub.stop(0);
+      stubExecutor.shutdown();
+    }
+  }
+
+  private static HttpServer startStub(final ExecutorService executor) throws IOException {
+    final HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    server.setExecutor(executor);
+    server.createContext("/api/eod/", exchange -> respond(exchange, "123.45"));
+    server.createContext("/api/real-time/", exchange -> {
+      final String first = exchange.getRequestURI().getPath().replace("/api/real-time/", "");
+      final String query = exchange.getRequestURI().getQuery();
+      final Map<String, String> parameters = Stream.of(query.split("&"))
+          .map(parameter -> parameter.split("=", 2))
+          .collect(Collectors.toMap(pair -> pair[0], pair -> pair.length > 1 ? pair[1] : ""));
+      final String body = Stream.concat(Stream.of(first),
+              Stream.of(parameters.getOrDefault("s", "").split(",")).filter(s -> !s.isEmpty()))
+          .map(code -> String.format("{\"code\":\"%s\",\"close\":%d.5}", code, code.length()))
+          .collect(Collectors.joining(",", "[", "]"));
+      respond(exchange, body);
+    });
+    server.start();
+    return server;
+  }
+
+  private static void respond(final HttpExchange exchange, final String body) throws IOException {
+    final byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+    exchange.sendResponseHeaders(200, bytes.length);
+    try (OutputStream output = exchange.getResponseBody()) {
+      output.write(bytes);
+    }
+  }
+}
@@ -0,0 +1,73 @@
+package com.java.functional.ch05_designing_lambda;
+
+import com.java.functional.ch05_designing_lambda.Asset.AssetType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+public class BatchedQueries {
+  public static void main(String[] args) {
+    final int count = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+    final Random random = new Random(42);
+    final List<Asset> assets = new ArrayList<>(count);
+    final List<String> names = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      assets.add(new Asset(random.nextBoolean() ? AssetType.BOND : AssetType.STOCK,
+          random.nextInt(1_000_000)));
+      names.add((char) ('A' + random.nextInt(26)) + Integer.toString(i, 36));
+    }
+    final List<Predicate<Asset>> assetSelectors = List.of(
+        asset -> true,
+        asset -> asset.getType() == AssetType.BOND,
+        asset -> asset.getType() == AssetType.STOCK);
+    final List<Predicate<String>> nameSelectors = List.of(
+        name -> name.startsWith("N"), name -> name.startsWith("B"), name -> name.startsWith("S"));
+
+    for (int run = 0; run < 5; run++) {
+      long start = System.nanoTime();
+      long perQueryTotal = 0;
+      for (Predicate<Asset> selector : assetSelectors) {
+        perQueryTotal += AssetUtility.totalAssetValues(assets, selector);
+      }
+      final long perQueryNanos = System.nanoTime() - start;
+
+      start = System.nanoTime();
+      long batchTotal = 0;
+      for (long total : QueryBatch.sumOf(assets, assetSelectors, Asset::getValue, false)) {
+        batchTotal += total;
+      }
+      final long batchNanos = System.nanoTime() - start;
+
+      start = System.nanoTime();
+      long parallelBatchTotal = 0;
+      for (long total : QueryBatch.sumOf(assets, assetSelectors, Asset::getValue, true)) {
+        parallelBatchTotal += total;
+      }
+      final long parallelBatchNanos = System.nanoTime() - start;
+
+      start = System.nanoTime();
+      long matches = 0;
+      for (Predicate<String> selector : nameSelectors) {
+        matches += names.stream().filter(selector).collect(Collectors.toList()).size();
+      }
+      final long perQueryNamesNanos = System.nanoTime() - start;
+
+      start = System.nanoTime();
+      for (List<String> selected :
+          names.stream().collect(QueryBatch.collecting(nameSelectors, Collectors.toList()))) {
+        matches -= selected.size();
+      }
+      final long batchNamesNanos = System.nanoTime() - start;
+
+      System.out.println(String.format(
+          "Run %d: asset totals per query %d ms, batch %d ms, parallel batch %d ms; "
+              + "names per query %d ms, batch %d ms; consistent: %b",
+          run, perQueryNanos / 1_000_000, batchNanos / 1_000_000,
+          parallelBatchNanos / 1_000_000, perQueryNamesNanos / 1_000_000,
+          batchNamesNanos / 1_000_000,
+          perQueryTotal == batchTotal && batchTotal == parallelBatchTotal && matches == 0));
+    }
+  }
+}
@@ -0,0 +1,41 @@
+package com.java.functional.ch05_designing_lambda;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+public class CachedDelegation {
+  public static void main(String[] args) {
+    final AtomicInteger fetches = new AtomicInteger();
+    final Function<String, BigDecimal> stubPriceFinder = ticker -> {
+      fetches.incrementAndGet();
+      sleep(50);
+      return BigDecimal.valueOf(ticker.length() * 100L);
+    };
+
+    final PriceCache priceCache =
+        new PriceCache(stubPriceFinder, 1_000, Duration.ofMinutes(10), Duration.ofMinutes(1));
+    final CalculateNAV calculateNAV = new CalculateNAV(priceCache);
+
+    final List<String> tickers = List.of("AAPL", "GOOG", "MSFT", "IBM");
+    IntStream.range(0, 10_000).parallel()
+        .forEach(i -> calculateNAV.calculateStockWorth(tickers.get(i % tickers.size()), i));
+
+    System.out.println(String.format("100 shares of Apple worth: $%.2f",
+        calculateNAV.calculateStockWorth("AAPL", 100)));
+    System.out.println(String.format("Fetches: %d, hits: %d, misses: %d, average load: %s",
+        fetches.get(), priceCache.hitCount(), priceCache.missCount(),
+        priceCache.averageLoadPenalty()));
+  }
+
+  private static void sleep(final long millis) {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException exception) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -1,9 +1,27 @@
 package com.java.functional.ch05_designing_lambda;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 
 public class CalculateNAV {
+  private static final int MAX_LOOKUP_THREADS = 64;
+  private static final Duration DEFAULT_LOOKUP_TIMEOUT = Duration.ofSeconds(10);
+
   private Function<String, BigDecimal> priceFinder;
 
   public CalculateNAV(Function<String, BigDecimal> priceFinder) {
@@ -13,4 +31,101 @@ public class CalculateNAV {
   public BigDecimal calculateStockWorth(final String ticker, final int shares) {
     return priceFinder.apply(ticker).multiply(BigDecimal.valueOf(shares));
   }
+
+  public PortfolioWorth calculatePortfolioWorth(final Map<String, Integer> sharesByTicker) {
+    final int threads = Math.max(1, Math.min(sharesByTicker.size(), MAX_LOOKUP_THREADS));
+    final AtomicInteger threadCount = new AtomicInteger();
+    final ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+      final Thread thread =
+          new Thread(runnable, "nav-price-lookup-" + threadCount.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+    try {
+      return calculatePortfolioWorth(sharesByTicker, executor, DEFAULT_LOOKUP_TIMEOUT);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * Looks up every ticker on {@code executor}. Each lookup gets {@code lookupTimeout} from the
+   * moment it starts running, not from when it was queued; a lookup that runs over is interrupted,
+   * freeing its thread, and reported as a {@link TimeoutException}.
+   */
+  public PortfolioWorth calculatePortfolioWorth(final Map<String, Integer> sharesByTicker,
+      final Executor executor, final Duration lookupTimeout) {
+    final Map<String, CompletableFuture<BigDecimal>> lookups = new LinkedHashMap<>();
+    sharesByTicker.forEach((ticker, shares) -> {
+      final Lookup lookup = new Lookup(() -> calculateStockWorth(ticker, shares), lookupTimeout);
+      executor.execute(lookup);
+      lookups.put(ticker, lookup.result);
+    });
+
+    CompletableFuture.allOf(lookups.values().toArray(CompletableFuture[]::new))
+        .exceptionally(throwable -> null)
+        .join();
+
+    final Map<String, BigDecimal> worthByTicker = new LinkedHashMap<>();
+    final Map<String, Throwable> failures = new LinkedHashMap<>();
+    lookups.forEach((ticker, lookup) -> {
+      try {
+        worthByTicker.put(ticker, lookup.join());
+      } catch (CompletionException exception) {
+        failures.put(ticker, exception.getCause());
+      }
+    });
+    return new PortfolioWorth(worthByTicker, failures);
+  }
+
+  /** A lookup that cancels itself, interrupting its thread, once it has run for too long. */
+  private static final class Lookup extends FutureTask<BigDecimal> {
+    private final CompletableFuture<BigDecimal> result = new CompletableFuture<>();
+    private final Duration timeout;
+
+    Lookup(final Callable<BigDecimal> lookup, final Duration timeout) {
+      super(lookup);
+      this.timeout = timeout;
+    }
+
+    @Override
+    public void run() {
+      CompletableFuture.delayedExecutor(timeout.toNanos(), TimeUnit.NANOSECONDS)
+          .execute(() -> cancel(true));
+      super.run();
+    }
+
+    @Override
+    protected void done() {
+      if (isCancelled()) {
+        result.completeExceptionally(
+            new TimeoutException("Price lookup took longer than " + timeout));
+        return;
+      }
+      try {
+        result.complete(get());
+      } catch (ExecutionException exception) {
+        result.completeExceptionally(exception.getCause());
+      } catch (InterruptedException exception) {
+        Thread.currentThread().interrupt();
+        result.completeExceptionally(exception);
+      }
+    }
+  }
+
+  public record PortfolioWorth(Map<String, BigDecimal> worthByTicker,
+                               Map<String, Throwable> failures) {
+    public PortfolioWorth {
+      worthByTicker = Collections.unmodifiableMap(new LinkedHashMap<>(worthByTicker));
+      failures = Collections.unmodifiableMap(new LinkedHashMap<>(failures));
+    }
+
+    public BigDecimal total() {
+      return worthByTicker.values().stream().reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    public boolean isComplete() {
+      return failures.isEmpty();
+    }
+  }
 }
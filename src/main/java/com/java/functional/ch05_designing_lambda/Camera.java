@@ -2,24 +2,76 @@ package com.java.functional.ch05_designing_lambda;
 
 import java.awt.Color;
 import java.util.function.Function;
+import java.util.function.IntUnaryOperator;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 @SuppressWarnings("unchecked")
 public class Camera {
+  private static final int ROWS_PER_STRIPE = 32;
+
   private Function<Color, Color> filter;
+  private IntUnaryOperator pixelFilter;
 
   public Camera() {
     setFilters();
   }
-  
+
   public Color capture(final Color inputColor) {
     final Color processedColor = filter.apply(inputColor);
     // more processing of color
     return processedColor;
   }
 
+  /**
+   * Composes {@code filters} with {@link Composition#of}; every call with two or more filters
+   * defines a new hidden class, so set the filters once rather than per frame.
+   */
   public void setFilters(final Function<Color, Color>... filters) {
-    filter =
-        Stream.of(filters).reduce((first, next) -> first.andThen(next)).orElse(color -> color);
+    filter = Composition.of(filters);
+    pixelFilter = packed(filter);
+  }
+
+  public void setPixelFilters(final IntUnaryOperator... filters) {
+    final IntUnaryOperator composed = Composition.ofInts(ChannelFilter::fuse,
+        Stream.of(filters).map(Camera::tabulated).toArray(IntUnaryOperator[]::new));
+    pixelFilter = composed;
+    filter = color -> new Color(composed.applyAsInt(color.getRGB()), true);
+  }
+
+  public int[] capture(final int[] argb, final int width, final int height) {
+    final int[] processed = new int[argb.length];
+    capture(argb, processed, width, height);
+    return processed;
+  }
+
+  public void capture(final int[] source, final int[] target, final int width, final int height) {
+    if (source.length < width * height || target.length < width * height) {
+      throw new IllegalArgumentException(
+          String.format("Frame buffers are smaller than %dx%d", width, height));
+    }
+    final IntUnaryOperator pixelFilter = this.pixelFilter;
+    final int stripes = (height + ROWS_PER_STRIPE - 1) / ROWS_PER_STRIPE;
+    IntStream.range(0, stripes).parallel().forEach(stripe -> {
+      final int from = stripe * ROWS_PER_STRIPE * width;
+      final int to = Math.min(height, (stripe + 1) * ROWS_PER_STRIPE) * width;
+      for (int i = from; i < to; i++) {
+        target[i] = pixelFilter.applyAsInt(source[i]);
+      }
+    });
+  }
+
+  public static IntUnaryOperator packed(final Function<Color, Color> filter) {
+    // identity() is the same instance on every call in the JDK, though not by specification;
+    // a fresh one would only cost the round trip through Color
+    if (filter == Function.<Color>identity()) {
+      return IntUnaryOperator.identity();
+    }
+    return argb -> filter.apply(new Color(argb, true)).getRGB();
+  }
+
+  private static IntUnaryOperator tabulated(final IntUnaryOperator pixelFilter) {
+    return pixelFilter instanceof ChannelFilter channelFilter
+        ? ChannelFilter.compile(channelFilter) : pixelFilter;
   }
 }
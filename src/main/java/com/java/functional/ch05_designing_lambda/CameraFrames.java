@@ -0,0 +1,50 @@
+package com.java.functional.ch05_designing_lambda;
+
+import java.awt.Color;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.function.IntUnaryOperator;
+
+@SuppressWarnings("unchecked")
+public class CameraFrames {
+  static final IntUnaryOperator DARKER = argb -> (argb & 0xFF000000)
+      | ((int) (((argb >> 16) & 0xFF) * 0.7) << 16)
+      | ((int) (((argb >> 8) & 0xFF) * 0.7) << 8)
+      | (int) ((argb & 0xFF) * 0.7);
+
+  static final IntUnaryOperator NO_BLUE = argb -> argb & 0xFFFFFF00;
+
+  public static void main(String[] args) {
+    final int width = args.length > 1 ? Integer.parseInt(args[0]) : 1920;
+    final int height = args.length > 1 ? Integer.parseInt(args[1]) : 1080;
+    final int[] frame = new Random(42).ints(width * height).map(pixel -> pixel | 0xFF000000)
+        .toArray();
+    final Camera camera = new Camera();
+
+    for (int run = 0; run < 5; run++) {
+      camera.setFilters(Color::darker, color -> new Color(color.getRed(), color.getGreen(), 0));
+      long start = System.nanoTime();
+      final int[] perPixel = new int[frame.length];
+      for (int i = 0; i < frame.length; i++) {
+        perPixel[i] = camera.capture(new Color(frame[i], true)).getRGB();
+      }
+      final long perPixelNanos = System.nanoTime() - start;
+
+      start = System.nanoTime();
+      final int[] adapted = camera.capture(frame, width, height);
+      final long adaptedNanos = System.nanoTime() - start;
+
+      camera.setPixelFilters(DARKER, NO_BLUE);
+      start = System.nanoTime();
+      final int[] packed = camera.capture(frame, width, height);
+      final long packedNanos = System.nanoTime() - start;
+
+      System.out.println(String.format(
+          "Run %d (%dx%d): Color per pixel %d ms, Color filters on frame %d ms, "
+              + "packed filters on frame %d ms, identical: %b",
+          run, width, height, perPixelNanos / 1_000_000, adaptedNanos / 1_000_000,
+          packedNanos / 1_000_000, Arrays.equals(perPixel, adapted)
+              && Arrays.equals(adapted, packed)));
+    }
+  }
+}
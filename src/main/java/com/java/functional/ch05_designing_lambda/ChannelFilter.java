@@ -0,0 +1,119 @@
+package com.java.functional.ch05_designing_lambda;
+
+import java.util.function.IntUnaryOperator;
+
+/**
+ * A pixel filter that maps the red, green and blue channels independently of each other and
+ * leaves alpha untouched. Because each channel only has 256 possible inputs, {@link Camera}
+ * compiles adjacent channel filters into lookup tables instead of evaluating them per pixel.
+ */
+@FunctionalInterface
+public interface ChannelFilter extends IntUnaryOperator {
+  int RED = 0;
+  int GREEN = 1;
+  int BLUE = 2;
+
+  /** Maps one channel value in 0..255; results outside that range are clamped. */
+  int applyToChannel(int channel, int value);
+
+  @Override
+  default int applyAsInt(final int argb) {
+    return (argb & 0xFF000000)
+        | clamp(applyToChannel(RED, (argb >> 16) & 0xFF)) << 16
+        | clamp(applyToChannel(GREEN, (argb >> 8) & 0xFF)) << 8
+        | clamp(applyToChannel(BLUE, argb & 0xFF));
+  }
+
+  static ChannelFilter uniform(final IntUnaryOperator mapping) {
+    return (channel, value) -> mapping.applyAsInt(value);
+  }
+
+  static ChannelFilter perChannel(final IntUnaryOperator red, final IntUnaryOperator green,
+      final IntUnaryOperator blue) {
+    return (channel, value) -> switch (channel) {
+      case RED -> red.applyAsInt(value);
+      case GREEN -> green.applyAsInt(value);
+      default -> blue.applyAsInt(value);
+    };
+  }
+
+  static ChannelFilter scale(final double factor) {
+    return uniform(value -> (int) (value * factor));
+  }
+
+  static ChannelFilter gamma(final double gamma) {
+    return uniform(value -> (int) Math.round(255 * Math.pow(value / 255.0, 1 / gamma)));
+  }
+
+  static ChannelFilter mask(final boolean red, final boolean green, final boolean blue) {
+    return (channel, value) -> switch (channel) {
+      case RED -> red ? value : 0;
+      case GREEN -> green ? value : 0;
+      default -> blue ? value : 0;
+    };
+  }
+
+  /** Folds a chain of channel filters into three 256-entry tables. */
+  static ChannelFilter compile(final ChannelFilter... filters) {
+    final int[] red = new int[256];
+    final int[] green = new int[256];
+    final int[] blue = new int[256];
+    for (int value = 0; value < 256; value++) {
+      int r = value;
+      int g = value;
+      int b = value;
+      for (ChannelFilter filter : filters) {
+        r = clamp(filter.applyToChannel(RED, r));
+        g = clamp(filter.applyToChannel(GREEN, g));
+        b = clamp(filter.applyToChannel(BLUE, b));
+      }
+      red[value] = r << 16;
+      green[value] = g << 8;
+      blue[value] = b;
+    }
+    return new LookupTable(red, green, blue);
+  }
+
+  /**
+   * Folds two adjacent channel filters into one set of lookup tables, for
+   * {@link Composition#ofInts(java.util.function.BinaryOperator, IntUnaryOperator...)}; returns
+   * {@code null} unless both are channel filters.
+   */
+  static IntUnaryOperator fuse(final IntUnaryOperator first, final IntUnaryOperator next) {
+    return first instanceof ChannelFilter firstChannels && next instanceof ChannelFilter
+        nextChannels ? compile(firstChannels, nextChannels) : null;
+  }
+
+  private static int clamp(final int value) {
+    return Math.max(0, Math.min(255, value));
+  }
+
+  final class LookupTable implements ChannelFilter {
+    private final int[] red;
+    private final int[] green;
+    private final int[] blue;
+
+    private LookupTable(final int[] red, final int[] green, final int[] blue) {
+      this.red = red;
+      this.green = green;
+      this.blue = blue;
+    }
+
+    @Override
+    public int applyToChannel(final int channel, final int value) {
+      return switch (channel) {
+        case RED -> red[clamp(value)] >> 16;
+        case GREEN -> green[clamp(value)] >> 8;
+        default -> blue[clamp(value)];
+      };
+    }
+
+    @Override
+    public int applyAsInt(final int argb) {
+      return (argb & 0xFF000000)
+          | red[(argb >> 16) & 0xFF]
+          | green[(argb >> 8) & 0xFF]
+          | blue[argb & 0xFF];
+    }
+  }
+}
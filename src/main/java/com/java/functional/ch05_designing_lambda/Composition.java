@@ -0,0 +1,229 @@
+package com.java.functional.ch05_designing_lambda;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.IntUnaryOperator;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+/**
+ * Composes decorators into one flat function instead of the nested chain that
+ * {@code Stream.of(filters).reduce(Function::andThen)} builds. The composition
+ * <ul>
+ *   <li>drops {@code identity()} stages and splices in the stages of nested compositions;
+ *   <li>lets a {@code fuser} merge adjacent stages, returning {@code null} for pairs it can't
+ *       merge, as {@link ChannelFilter#fuse} does for lookup tables;
+ *   <li>binds each remaining stage into a method handle, joins them with
+ *       {@link MethodHandles#filterReturnValue} and calls the result as a constant from a hidden
+ *       copy of {@link ObjectChain} or {@link IntChain}, so the JIT can inline the stages into
+ *       one method.
+ * </ul>
+ *
+ * <p>{@code identity()} stages are recognized by reference. That relies on
+ * {@code Function.identity()} and its siblings returning the same instance on every call, which
+ * the JDK does because they are non-capturing lambdas but doesn't specify. Were it to change, an
+ * identity stage would only be kept as a stage, not break the composition.
+ *
+ * <p>Every composition of two or more stages defines a new hidden class, which takes far longer
+ * than applying it: compose once, apply many times.
+ */
+public final class Composition {
+  private static final MethodHandle APPLY;
+  private static final MethodHandle APPLY_AS_INT;
+
+  static {
+    try {
+      final MethodHandles.Lookup lookup = MethodHandles.lookup();
+      APPLY = lookup.findVirtual(Function.class, "apply",
+          MethodType.methodType(Object.class, Object.class));
+      APPLY_AS_INT = lookup.findVirtual(IntUnaryOperator.class, "applyAsInt",
+          MethodType.methodType(int.class, int.class));
+    } catch (ReflectiveOperationException e) {
+      throw new ExceptionInInitializerError(e);
+    }
+  }
+
+  private Composition() {
+  }
+
+  /** Implemented by compositions, so that composing them again flattens their stages. */
+  interface Staged {
+    List<?> stages();
+  }
+
+  @SafeVarargs
+  public static <T> Function<T, T> of(final Function<T, T>... stages) {
+    final List<Function<T, T>> copy = new ArrayList<>(stages.length);
+    for (Function<T, T> stage : stages) {
+      copy.add(stage);
+    }
+    return of(copy);
+  }
+
+  public static <T> Function<T, T> of(final List<? extends Function<T, T>> stages) {
+    return of((first, next) -> null, stages);
+  }
+
+  @SuppressWarnings("unchecked")
+  public static <T> Function<T, T> of(final BinaryOperator<Function<T, T>> fuser,
+      final List<? extends Function<T, T>> stages) {
+    final List<Function<T, T>> flat = flatten(stages, fuser,
+        stage -> stage == Function.identity() || stage == UnaryOperator.identity());
+    return switch (flat.size()) {
+      case 0 -> Function.identity();
+      case 1 -> flat.get(0);
+      default -> (Function<T, T>) functions(flat);
+    };
+  }
+
+  @SafeVarargs
+  @SuppressWarnings("unchecked")
+  public static <T> UnaryOperator<T> ofUnary(final UnaryOperator<T>... stages) {
+    final List<UnaryOperator<T>> copy = new ArrayList<>(stages.length);
+    for (UnaryOperator<T> stage : stages) {
+      copy.add(stage);
+    }
+    final List<UnaryOperator<T>> flat = flatten(copy, (first, next) -> null,
+        stage -> stage == UnaryOperator.identity());
+    return switch (flat.size()) {
+      case 0 -> UnaryOperator.identity();
+      case 1 -> flat.get(0);
+      default -> (UnaryOperator<T>) functions(flat);
+    };
+  }
+
+  public static IntUnaryOperator ofInts(final IntUnaryOperator... stages) {
+    return ofInts((first, next) -> null, stages);
+  }
+
+  public static IntUnaryOperator ofInts(final BinaryOperator<IntUnaryOperator> fuser,
+      final IntUnaryOperator... stages) {
+    final List<IntUnaryOperator> flat = flatten(Arrays.asList(stages), fuser,
+        stage -> stage == IntUnaryOperator.identity());
+    return switch (flat.size()) {
+      case 0 -> IntUnaryOperator.identity();
+      case 1 -> flat.get(0);
+      default -> (IntUnaryOperator) chain(IntChain.class, APPLY_AS_INT, flat);
+    };
+  }
+
+  /** The stages applied by a loop over an array, the alternative to a chain of handles. */
+  @SuppressWarnings("unchecked")
+  static <T> UnaryOperator<T> arrayChain(final List<? extends Function<T, T>> stages) {
+    return new ArrayChain<>(stages.toArray(Function[]::new));
+  }
+
+  static IntUnaryOperator intArrayChain(final IntUnaryOperator... stages) {
+    return new IntArrayChain(stages.clone());
+  }
+
+  private static Object functions(final List<?> stages) {
+    return chain(ObjectChain.class, APPLY, stages);
+  }
+
+  /**
+   * Binds each stage to {@code apply}, joins the bound handles with
+   * {@link MethodHandles#filterReturnValue} and defines a hidden copy of {@code template} that
+   * calls the result as a constant.
+   */
+  private static Object chain(final Class<?> template, final MethodHandle apply,
+      final List<?> stages) {
+    final List<MethodHandle> calls = new ArrayList<>(stages.size());
+    for (Object stage : stages) {
+      calls.add(apply.bindTo(stage));
+    }
+    return HiddenClasses.newInstance(template,
+        List.of(join(calls, 0, calls.size()), List.copyOf(stages)));
+  }
+
+  /**
+   * Calls {@code from} to {@code to} one after the other, joined as a balanced tree so that a
+   * chain of n stages is only log2(n) handles deep and stays within the JIT's inlining depth.
+   */
+  private static MethodHandle join(final List<MethodHandle> calls, final int from,
+      final int to) {
+    if (to - from == 1) {
+      return calls.get(from);
+    }
+    final int middle = (from + to) >>> 1;
+    return MethodHandles.filterReturnValue(join(calls, from, middle), join(calls, middle, to));
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <F> List<F> flatten(final List<? extends F> stages,
+      final BinaryOperator<F> fuser, final Predicate<F> isIdentity) {
+    final List<F> flat = new ArrayList<>(stages.size());
+    for (F stage : stages) {
+      if (stage instanceof Staged staged) {
+        for (Object nested : staged.stages()) {
+          append(flat, (F) nested, fuser);
+        }
+      } else if (!isIdentity.test(stage)) {
+        append(flat, stage, fuser);
+      }
+    }
+    return flat;
+  }
+
+  private static <F> void append(final List<F> flat, final F stage,
+      final BinaryOperator<F> fuser) {
+    if (!flat.isEmpty()) {
+      final F fused = fuser.apply(flat.get(flat.size() - 1), stage);
+      if (fused != null) {
+        flat.set(flat.size() - 1, fused);
+        return;
+      }
+    }
+    flat.add(stage);
+  }
+
+  private static final class ArrayChain<T> implements UnaryOperator<T>, Staged {
+    private final Function<T, T>[] stages;
+
+    ArrayChain(final Function<T, T>[] stages) {
+      this.stages = stages;
+    }
+
+    @Override
+    public T apply(final T value) {
+      T result = value;
+      for (Function<T, T> stage : stages) {
+        result = stage.apply(result);
+      }
+      return result;
+    }
+
+    @Override
+    public List<?> stages() {
+      return List.of(stages);
+    }
+  }
+
+  private static final class IntArrayChain implements IntUnaryOperator, Staged {
+    private final IntUnaryOperator[] stages;
+
+    IntArrayChain(final IntUnaryOperator[] stages) {
+      this.stages = stages;
+    }
+
+    @Override
+    public int applyAsInt(final int value) {
+      int result = value;
+      for (IntUnaryOperator stage : stages) {
+        result = stage.applyAsInt(result);
+      }
+      return result;
+    }
+
+    @Override
+    public List<?> stages() {
+      return List.of(stages);
+    }
+  }
+}
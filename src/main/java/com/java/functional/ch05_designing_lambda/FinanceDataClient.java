@@ -0,0 +1,117 @@
+package com.java.functional.ch05_designing_lambda;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Asynchronous counterpart of {@link FinanceData}. All requests share one {@link HttpClient}, so
+ * connections are kept alive and reused (over HTTP/2 where the server supports it).
+ */
+public class FinanceDataClient {
+  public static final URI DEFAULT_BASE_URI = URI.create("https://eodhistoricaldata.com/api/");
+  private static final int MAX_TICKERS_PER_REQUEST = 15;
+  private static final Pattern QUOTE = Pattern.compile("\\{[^{}]*}");
+  private static final Pattern CODE = Pattern.compile("\"code\"\\s*:\\s*\"([^\"]+)\"");
+  private static final Pattern CLOSE = Pattern.compile("\"close\"\\s*:\\s*\"?([-+0-9.eE]+)");
+
+  private final HttpClient httpClient;
+  private final URI baseUri;
+  private final String apiToken;
+  private final Duration requestTimeout;
+
+  public FinanceDataClient(final URI baseUri, final String apiToken) {
+    this(HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_2)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build(),
+        baseUri, apiToken, Duration.ofSeconds(10));
+  }
+
+  public FinanceDataClient(final HttpClient httpClient, final URI baseUri, final String apiToken,
+      final Duration requestTimeout) {
+    this.httpClient = httpClient;
+    this.baseUri = baseUri;
+    this.apiToken = apiToken;
+    this.requestTimeout = requestTimeout;
+  }
+
+  public CompletableFuture<BigDecimal> getPrice(final String ticker) {
+    final URI uri = baseUri.resolve(String.format(
+        "eod/%s.US?fmt=json&filter=last_close&api_token=%s", encode(ticker), encode(apiToken)));
+    return send(uri).thenApply(body -> new BigDecimal(body.trim()));
+  }
+
+  public CompletableFuture<Map<String, BigDecimal>> getPrices(final Collection<String> tickers) {
+    final List<String> distinctTickers = tickers.stream().distinct().collect(Collectors.toList());
+    final List<CompletableFuture<Map<String, BigDecimal>>> batches = new ArrayList<>();
+    for (int from = 0; from < distinctTickers.size(); from += MAX_TICKERS_PER_REQUEST) {
+      batches.add(getBatch(distinctTickers.subList(from,
+          Math.min(from + MAX_TICKERS_PER_REQUEST, distinctTickers.size()))));
+    }
+    return CompletableFuture.allOf(batches.toArray(CompletableFuture[]::new))
+        .thenApply(ignored -> {
+          final Map<String, BigDecimal> prices = new LinkedHashMap<>();
+          batches.forEach(batch -> prices.putAll(batch.join()));
+          return prices;
+        });
+  }
+
+  private CompletableFuture<Map<String, BigDecimal>> getBatch(final List<String> tickers) {
+    final String others = tickers.stream().skip(1)
+        .map(ticker -> encode(ticker) + ".US")
+        .collect(Collectors.joining(","));
+    final URI uri = baseUri.resolve(String.format("real-time/%s.US?%sfmt=json&api_token=%s",
+        encode(tickers.get(0)), others.isEmpty() ? "" : "s=" + others + "&", encode(apiToken)));
+    return send(uri).thenApply(FinanceDataClient::parseQuotes);
+  }
+
+  private CompletableFuture<String> send(final URI uri) {
+    final HttpRequest request = HttpRequest.newBuilder(uri).timeout(requestTimeout).GET().build();
+    return httpClient.sendAsync(request, BodyHandlers.ofString())
+        .thenApply(FinanceDataClient::bodyOf);
+  }
+
+  private static String bodyOf(final HttpResponse<String> response) {
+    if (response.statusCode() != 200) {
+      throw new RuntimeException(String.format("GET %s returned %d",
+          response.uri().getPath(), response.statusCode()));
+    }
+    return response.body();
+  }
+
+  static Map<String, BigDecimal> parseQuotes(final String body) {
+    final Map<String, BigDecimal> prices = new LinkedHashMap<>();
+    final Matcher quote = QUOTE.matcher(body);
+    while (quote.find()) {
+      final Matcher code = CODE.matcher(quote.group());
+      final Matcher close = CLOSE.matcher(quote.group());
+      if (code.find() && close.find()) {
+        final String symbol = code.group(1);
+        final int exchange = symbol.lastIndexOf('.');
+        prices.put(exchange < 0 ? symbol : symbol.substring(0, exchange),
+            new BigDecimal(close.group(1)));
+      }
+    }
+    return prices;
+  }
+
+  private static String encode(final String value) {
+    return URLEncoder.encode(value, StandardCharsets.UTF_8);
+  }
+}
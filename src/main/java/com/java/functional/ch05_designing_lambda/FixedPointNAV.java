@@ -0,0 +1,60 @@
+package com.java.functional.ch05_designing_lambda;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * Fixed-point variant of {@link CalculateNAV}. Prices and worth are {@code long} micro-units
+ * (six decimal places), so valuing a position allocates nothing; {@code BigDecimal} is only
+ * used when converting in from a price source or out for reporting. Every operation that could
+ * overflow throws {@link ArithmeticException} instead of wrapping.
+ */
+public class FixedPointNAV {
+  public static final int SCALE = 6;
+  public static final long ONE = 1_000_000L;
+
+  private final ToLongFunction<String> priceFinder;
+
+  public FixedPointNAV(final ToLongFunction<String> priceFinder) {
+    this.priceFinder = priceFinder;
+  }
+
+  public static FixedPointNAV from(final Function<String, BigDecimal> priceFinder,
+      final RoundingMode roundingMode) {
+    return new FixedPointNAV(ticker -> toMicros(priceFinder.apply(ticker), roundingMode));
+  }
+
+  public long calculateStockWorth(final String ticker, final int shares) {
+    return worth(priceFinder.applyAsLong(ticker), shares);
+  }
+
+  public static long worth(final long priceMicros, final int shares) {
+    return Math.multiplyExact(priceMicros, (long) shares);
+  }
+
+  public static long totalWorth(final long[] priceMicros, final int[] shares) {
+    if (priceMicros.length != shares.length) {
+      throw new IllegalArgumentException("prices and shares must have the same length");
+    }
+    long total = 0;
+    for (int i = 0; i < priceMicros.length; i++) {
+      total = Math.addExact(total, Math.multiplyExact(priceMicros[i], (long) shares[i]));
+    }
+    return total;
+  }
+
+  public static long toMicros(final BigDecimal price, final RoundingMode roundingMode) {
+    return price.setScale(SCALE, roundingMode).unscaledValue().longValueExact();
+  }
+
+  public static BigDecimal toBigDecimal(final long micros) {
+    return BigDecimal.valueOf(micros, SCALE);
+  }
+
+  public static BigDecimal toBigDecimal(final long micros, final int scale,
+      final RoundingMode roundingMode) {
+    return toBigDecimal(micros).setScale(scale, roundingMode);
+  }
+}
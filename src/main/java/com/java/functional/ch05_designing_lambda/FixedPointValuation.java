@@ -0,0 +1,39 @@
+package com.java.functional.ch05_designing_lambda;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+
+public class FixedPointValuation {
+  public static void main(String[] args) {
+    final int positions = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+    final Random random = new Random(42);
+    final BigDecimal[] prices = new BigDecimal[positions];
+    final long[] priceMicros = new long[positions];
+    final int[] shares = new int[positions];
+    for (int i = 0; i < positions; i++) {
+      prices[i] = BigDecimal.valueOf(random.nextInt(10_000_000), 4);
+      priceMicros[i] = FixedPointNAV.toMicros(prices[i], RoundingMode.HALF_EVEN);
+      shares[i] = random.nextInt(1_000);
+    }
+
+    for (int run = 0; run < 5; run++) {
+      long start = System.nanoTime();
+      BigDecimal bigDecimalTotal = BigDecimal.ZERO;
+      for (int i = 0; i < positions; i++) {
+        bigDecimalTotal = bigDecimalTotal.add(prices[i].multiply(BigDecimal.valueOf(shares[i])));
+      }
+      final long bigDecimalNanos = System.nanoTime() - start;
+
+      start = System.nanoTime();
+      final long fixedPointTotal = FixedPointNAV.totalWorth(priceMicros, shares);
+      final long fixedPointNanos = System.nanoTime() - start;
+
+      System.out.println(String.format(
+          "Run %d: BigDecimal %d ms, fixed-point %d ms, totals equal: %b (%s)",
+          run, bigDecimalNanos / 1_000_000, fixedPointNanos / 1_000_000,
+          bigDecimalTotal.compareTo(FixedPointNAV.toBigDecimal(fixedPointTotal)) == 0,
+          FixedPointNAV.toBigDecimal(fixedPointTotal, 2, RoundingMode.HALF_EVEN)));
+    }
+  }
+}
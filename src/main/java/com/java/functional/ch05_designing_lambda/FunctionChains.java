@@ -0,0 +1,61 @@
+package com.java.functional.ch05_designing_lambda;
+
+import java.util.function.IntUnaryOperator;
+import java.util.stream.Stream;
+
+public class FunctionChains {
+  public static void main(String[] args) {
+    final int calls = args.length > 0 ? Integer.parseInt(args[0]) : 5_000_000;
+    final int[] lengths = {1, 2, 4, 8, 16, 32, 64};
+
+    for (int run = 0; run < 3; run++) {
+      boolean consistent = true;
+      for (int stages : lengths) {
+        final IntUnaryOperator[] operators = operators(stages);
+        final IntUnaryOperator nested = Stream.of(operators)
+            .reduce((first, next) -> first.andThen(next)).orElseThrow();
+        final IntUnaryOperator array = Composition.intArrayChain(operators);
+        final IntUnaryOperator generated = Composition.ofInts(operators);
+
+        final long nestedNanos = System.nanoTime();
+        final int nestedResult = applyAll(nested, calls);
+        final long arrayNanos = System.nanoTime();
+        final int arrayResult = applyAll(array, calls);
+        final long generatedNanos = System.nanoTime();
+        final int generatedResult = applyAll(generated, calls);
+        final long end = System.nanoTime();
+
+        consistent &= nestedResult == arrayResult && arrayResult == generatedResult;
+        System.out.println(String.format(
+            "%2d stages: nested andThen %5.1f ns, array %5.1f ns, generated %5.1f ns per call",
+            stages, (double) (arrayNanos - nestedNanos) / calls,
+            (double) (generatedNanos - arrayNanos) / calls,
+            (double) (end - generatedNanos) / calls));
+      }
+      System.out.println(String.format("Run %d consistent: %b%n", run, consistent));
+    }
+  }
+
+  /** Stages of four different lambda classes, as a chain of unrelated decorators would have. */
+  static IntUnaryOperator[] operators(final int stages) {
+    final IntUnaryOperator[] operators = new IntUnaryOperator[stages];
+    for (int i = 0; i < stages; i++) {
+      final int k = i + 1;
+      operators[i] = switch (i % 4) {
+        case 0 -> value -> value + k;
+        case 1 -> value -> value ^ (k << 3);
+        case 2 -> value -> Integer.rotateLeft(value, k);
+        default -> value -> value * 31;
+      };
+    }
+    return operators;
+  }
+
+  private static int applyAll(final IntUnaryOperator chain, final int calls) {
+    int result = 0;
+    for (int i = 0; i < calls; i++) {
+      result += chain.applyAsInt(i);
+    }
+    return result;
+  }
+}
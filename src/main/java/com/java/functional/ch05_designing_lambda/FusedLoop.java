@@ -0,0 +1,157 @@
+package com.java.functional.ch05_designing_lambda;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * Compiles the stages of a {@link Query} into one loop. Every stage wraps the step that follows
+ * it, so the whole pipeline becomes a single method handle {@code (accumulator, element) ->
+ * accumulator}, and {@link MethodHandles#countedLoop} runs it over the source. A hidden copy of
+ * {@link LongKernel}, {@link IntKernel} or {@link ObjectKernel} calls the loop as a constant,
+ * which lets the JIT inline the lambdas of every stage into the loop body.
+ */
+final class FusedLoop {
+  private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+  private FusedLoop() {
+  }
+
+  /** How a loop reads its source: {@code (source)int} for the length, {@code (source, int)E}. */
+  record Source(MethodHandle length, MethodHandle element) {
+    static Source list() {
+      return new Source(virtual(List.class, "size", MethodType.methodType(int.class)),
+          virtual(List.class, "get", MethodType.methodType(Object.class, int.class)));
+    }
+
+    static Source array(final Class<?> arrayType) {
+      return new Source(MethodHandles.arrayLength(arrayType),
+          MethodHandles.arrayElementGetter(arrayType));
+    }
+  }
+
+  /** A stage turns the step for its output into the step for its input. */
+  @FunctionalInterface
+  interface Stage {
+    MethodHandle wrap(MethodHandle downstream);
+  }
+
+  static Stage filter(final MethodHandle test) {
+    return downstream -> {
+      final Class<?> accumulator = downstream.type().parameterType(0);
+      return MethodHandles.guardWithTest(
+          MethodHandles.dropArguments(test, 0, accumulator),
+          downstream,
+          MethodHandles.dropArguments(MethodHandles.identity(accumulator), 1,
+              test.type().parameterType(0)));
+    };
+  }
+
+  static Stage map(final MethodHandle mapper) {
+    return downstream -> MethodHandles.filterArguments(downstream, 1, mapper);
+  }
+
+  static List<Stage> plus(final List<Stage> stages, final Stage stage) {
+    final List<Stage> result = new ArrayList<>(stages.size() + 1);
+    result.addAll(stages);
+    result.add(stage);
+    return List.copyOf(result);
+  }
+
+  /** The parts of a compiled loop, all taking the source as {@code Object}. */
+  record Loop(MethodHandle length, MethodHandle init, MethodHandle body) {
+  }
+
+  /**
+   * The loop that starts from {@code init}, a {@code ()A} handle, and folds each element through
+   * the stages into {@code step}, a {@code (A, E)A} handle.
+   */
+  static Loop loop(final Source source, final List<Stage> stages, final MethodHandle init,
+      final MethodHandle step) {
+    MethodHandle body = step;
+    for (int i = stages.size() - 1; i >= 0; i--) {
+      body = stages.get(i).wrap(body);
+    }
+    final Class<?> accumulator = body.type().parameterType(0);
+    final Class<?> sourceType = source.length().type().parameterType(0);
+    // (A, S, int)A, reordered to (A, int, S)A.
+    body = MethodHandles.collectArguments(body, 1, source.element());
+    body = MethodHandles.permuteArguments(body,
+        MethodType.methodType(accumulator, accumulator, int.class, sourceType), 0, 2, 1);
+    return new Loop(
+        source.length().asType(MethodType.methodType(int.class, Object.class)),
+        MethodHandles.dropArguments(init, 0, Object.class),
+        body.asType(MethodType.methodType(accumulator, accumulator, int.class, Object.class)));
+  }
+
+  /** The loop that counts the elements of type {@code element} reaching its end. */
+  static Loop count(final Source source, final List<Stage> stages, final Class<?> element) {
+    return loop(source, stages, MethodHandles.constant(long.class, 0L),
+        MethodHandles.dropArguments(helper("increment",
+            MethodType.methodType(long.class, long.class)), 1, element));
+  }
+
+  @SuppressWarnings("unchecked")
+  static <S> ToLongFunction<S> toLong(final Loop loop) {
+    return (ToLongFunction<S>) kernel(LongKernel.class, long.class, loop);
+  }
+
+  @SuppressWarnings("unchecked")
+  static <S> ToIntFunction<S> toInt(final Loop loop) {
+    return (ToIntFunction<S>) kernel(IntKernel.class, int.class, loop);
+  }
+
+  @SuppressWarnings("unchecked")
+  static <S, R> Function<S, R> toObject(final Loop loop) {
+    return (Function<S, R>) kernel(ObjectKernel.class, Object.class, loop);
+  }
+
+  static MethodHandle virtual(final Class<?> owner, final String name, final MethodType type) {
+    try {
+      return LOOKUP.findVirtual(owner, name, type);
+    } catch (ReflectiveOperationException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  static MethodHandle bound(final Object receiver, final Class<?> type, final String name,
+      final MethodType methodType) {
+    return virtual(type, name, methodType).bindTo(receiver);
+  }
+
+  static MethodHandle helper(final String name, final MethodType type) {
+    try {
+      return LOOKUP.findStatic(FusedLoop.class, name, type);
+    } catch (ReflectiveOperationException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  static long increment(final long count) {
+    return count + 1;
+  }
+
+  @SuppressWarnings("unchecked")
+  static Object add(final Object list, final Object element) {
+    ((List<Object>) list).add(element);
+    return list;
+  }
+
+  /**
+   * Turns {@code loop} into one {@code (Object)A} handle with {@link MethodHandles#countedLoop}
+   * and defines a hidden copy of {@code template} that calls it as a constant, so the loop, and
+   * every lambda bound into it, is inlined by the JIT.
+   */
+  private static Object kernel(final Class<?> template, final Class<?> accumulator,
+      final Loop loop) {
+    return HiddenClasses.newInstance(template, List.of(MethodHandles.countedLoop(loop.length(),
+        loop.init().asType(MethodType.methodType(accumulator, Object.class)),
+        loop.body().asType(
+            MethodType.methodType(accumulator, accumulator, int.class, Object.class)))));
+  }
+}
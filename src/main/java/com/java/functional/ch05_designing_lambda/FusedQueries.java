@@ -0,0 +1,105 @@
+package com.java.functional.ch05_designing_lambda;
+
+import com.java.functional.ch05_designing_lambda.Asset.AssetType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public class FusedQueries {
+  public static void main(String[] args) {
+    final int size = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+    final int evaluations = args.length > 1 ? Integer.parseInt(args[1]) : 2_000_000;
+    final Random random = new Random(42);
+    final List<Asset> assets = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      assets.add(new Asset(random.nextBoolean() ? AssetType.BOND : AssetType.STOCK,
+          random.nextInt(10_000)));
+    }
+    final int[] prices = random.ints(size, 1, 100).toArray();
+
+    final ToLongFunction<List<Asset>> bondTotal = Query.from(Asset.class)
+        .filter(asset -> asset.getType() == AssetType.BOND)
+        .mapToLong(Asset::getValue)
+        .sum();
+    final Function<List<Asset>, List<Integer>> largeValues = Query.from(Asset.class)
+        .filter(asset -> asset.getValue() > 5_000)
+        .map(Asset::getValue)
+        .toList();
+    final ToIntFunction<int[]> discounted = Query.ints()
+        .filter(price -> price > 20)
+        .map(price -> price * 9 / 10)
+        .sum();
+
+    System.out.println(String.format("%d elements, %,d evaluations per query%n", size,
+        evaluations));
+    for (int run = 0; run < 3; run++) {
+      final long streamTotal = time("Stream filter/mapToLong/sum", () -> {
+        long total = 0;
+        for (int i = 0; i < evaluations; i++) {
+          total += assets.stream()
+              .filter(asset -> asset.getType() == AssetType.BOND)
+              .mapToLong(Asset::getValue)
+              .sum();
+        }
+        return total;
+      });
+      final long queryTotal = time("Query filter/mapToLong/sum", () -> {
+        long total = 0;
+        for (int i = 0; i < evaluations; i++) {
+          total += bondTotal.applyAsLong(assets);
+        }
+        return total;
+      });
+      final long streamCount = time("Stream filter/map/toList", () -> {
+        long total = 0;
+        for (int i = 0; i < evaluations; i++) {
+          total += assets.stream()
+              .filter(asset -> asset.getValue() > 5_000)
+              .map(Asset::getValue)
+              .collect(Collectors.toList()).size();
+        }
+        return total;
+      });
+      final long queryCount = time("Query filter/map/toList", () -> {
+        long total = 0;
+        for (int i = 0; i < evaluations; i++) {
+          total += largeValues.apply(assets).size();
+        }
+        return total;
+      });
+      final long streamInts = time("IntStream filter/map/sum", () -> {
+        long total = 0;
+        for (int i = 0; i < evaluations; i++) {
+          total += IntStream.of(prices)
+              .filter(price -> price > 20)
+              .map(price -> price * 9 / 10)
+              .sum();
+        }
+        return total;
+      });
+      final long queryInts = time("Query.ints filter/map/sum", () -> {
+        long total = 0;
+        for (int i = 0; i < evaluations; i++) {
+          total += discounted.applyAsInt(prices);
+        }
+        return total;
+      });
+      System.out.println(String.format("Run %d consistent: %b%n", run,
+          streamTotal == queryTotal && streamCount == queryCount && streamInts == queryInts));
+    }
+  }
+
+  private static long time(final String label, final Supplier<Long> query) {
+    final long start = System.nanoTime();
+    final long result = query.get();
+    final long millis = (System.nanoTime() - start) / 1_000_000;
+    System.out.println(String.format("%-32s %,d ms", label, millis));
+    return result;
+  }
+}
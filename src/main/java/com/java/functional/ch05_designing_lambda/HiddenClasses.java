@@ -0,0 +1,69 @@
+package com.java.functional.ch05_designing_lambda;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+/**
+ * Defines the small hidden classes that {@link Query} and {@link Composition} use. Each is a copy
+ * of a template, a class compiled from Java source such as {@link LongKernel} whose
+ * {@code static final} fields are read from the class data. Every copy is a new class with its
+ * own constants, so the JIT compiles each one for the handle it was given, and is unloaded once
+ * its instance is no longer reachable.
+ */
+final class HiddenClasses {
+  private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+  private static final ClassValue<byte[]> TEMPLATES = new ClassValue<>() {
+    @Override
+    protected byte[] computeValue(final Class<?> template) {
+      final String name = template.getName();
+      try (InputStream in = template.getResourceAsStream(
+          name.substring(name.lastIndexOf('.') + 1) + ".class")) {
+        if (in == null) {
+          throw new IllegalStateException("No class file for " + name);
+        }
+        return in.readAllBytes();
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+  };
+
+  private HiddenClasses() {
+  }
+
+  /** Defines a hidden copy of {@code template} and returns a new instance of it. */
+  static Object newInstance(final Class<?> template, final Object classData) {
+    try {
+      final MethodHandles.Lookup lookup =
+          LOOKUP.defineHiddenClassWithClassData(TEMPLATES.get(template), classData, true);
+      return lookup.findConstructor(lookup.lookupClass(), MethodType.methodType(void.class))
+          .invoke();
+    } catch (Throwable e) {
+      throw unchecked(e);
+    }
+  }
+
+  /**
+   * Element {@code index} of the class data list of the hidden class {@code lookup} was made in;
+   * templates call it with {@code MethodHandles.lookup()} to initialize their constants.
+   */
+  static <T> T classData(final MethodHandles.Lookup lookup, final int index,
+      final Class<T> type) {
+    try {
+      return MethodHandles.classDataAt(lookup, "_", type, index);
+    } catch (IllegalAccessException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /** Rethrows errors; returns runtime exceptions, and other throwables wrapped, to be thrown. */
+  static RuntimeException unchecked(final Throwable e) {
+    if (e instanceof Error error) {
+      throw error;
+    }
+    return e instanceof RuntimeException runtime ? runtime : new IllegalStateException(e);
+  }
+}
@@ -0,0 +1,50 @@
+package com.java.functional.ch05_designing_lambda;
+
+import com.java.functional.ch03_strings_comparators_filters.Person;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+public class InstrumentedPipelines {
+  public static void main(String[] args) {
+    final int count = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+    final Random random = new Random(42);
+    final List<String> names = new ArrayList<>(count);
+    final List<Person> people = new ArrayList<>(count);
+    final List<Asset> assets = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      names.add((char) ('A' + random.nextInt(26)) + "name" + i);
+      people.add(new Person(names.get(i), random.nextInt(100)));
+      assets.add(new Asset(random.nextInt(4) == 0 ? Asset.AssetType.BOND : Asset.AssetType.STOCK,
+          random.nextInt(10_000)));
+    }
+
+    final MetricsRegistry registry = MetricsRegistry.jmx();
+
+    // UsingCollections.transform and filter
+    final PipelineProbe transform = PipelineProbe.of("transform", registry);
+    final List<String> upperCaseN = transform.source("names", names.stream())
+        .filter(transform.filter("startsWithN", name -> name.startsWith("N")))
+        .map(transform.map("toUpperCase", String::toUpperCase))
+        .collect(transform.collect("toList", Collectors.toList()));
+
+    // Collector.peopleNameByAge
+    final PipelineProbe byAge = PipelineProbe.of("peopleNameByAge", registry);
+    final Map<Integer, List<String>> namesByAge = byAge.source("people", people.parallelStream())
+        .collect(byAge.collect("groupingBy", Collectors.groupingBy(Person::getAge,
+            Collectors.mapping(byAge.map("name", Person::getName), Collectors.toList()))));
+
+    // AssetUtility.totalAssetValues
+    final long bonds = AssetUtility.totalAssetValues(assets,
+        asset -> asset.getType() == Asset.AssetType.BOND,
+        PipelineProbe.of("totalAssetValues", registry));
+
+    System.out.println(String.format("%d N-names, %d ages, bonds worth %d%n",
+        upperCaseN.size(), namesByAge.size(), bonds));
+    registry.snapshot().forEach(System.out::println);
+    System.out.println("\nThe same metrics are registered as com.java.functional:type=PipelineStage"
+        + " MBeans.");
+  }
+}
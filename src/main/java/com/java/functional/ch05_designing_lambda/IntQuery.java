@@ -0,0 +1,53 @@
+package com.java.functional.ch05_designing_lambda;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.List;
+import java.util.function.IntBinaryOperator;
+import java.util.function.IntPredicate;
+import java.util.function.IntToLongFunction;
+import java.util.function.IntUnaryOperator;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+/** The {@code int} stages of a {@link Query}; values stay unboxed through the compiled loop. */
+public final class IntQuery<S> {
+  private final FusedLoop.Source source;
+  private final List<FusedLoop.Stage> stages;
+
+  IntQuery(final FusedLoop.Source source, final List<FusedLoop.Stage> stages) {
+    this.source = source;
+    this.stages = stages;
+  }
+
+  public IntQuery<S> filter(final IntPredicate predicate) {
+    return new IntQuery<>(source, FusedLoop.plus(stages, FusedLoop.filter(FusedLoop.bound(
+        predicate, IntPredicate.class, "test", MethodType.methodType(boolean.class, int.class)))));
+  }
+
+  public IntQuery<S> map(final IntUnaryOperator mapper) {
+    return new IntQuery<>(source, FusedLoop.plus(stages, FusedLoop.map(FusedLoop.bound(mapper,
+        IntUnaryOperator.class, "applyAsInt", MethodType.methodType(int.class, int.class)))));
+  }
+
+  public LongQuery<S> mapToLong(final IntToLongFunction mapper) {
+    return new LongQuery<>(source, FusedLoop.plus(stages, FusedLoop.map(FusedLoop.bound(mapper,
+        IntToLongFunction.class, "applyAsLong", MethodType.methodType(long.class, int.class)))));
+  }
+
+  /** Like {@code IntStream.sum()}, overflows silently. */
+  public ToIntFunction<S> sum() {
+    return reduce(0, Integer::sum);
+  }
+
+  public ToLongFunction<S> count() {
+    return FusedLoop.toLong(FusedLoop.count(source, stages, int.class));
+  }
+
+  public ToIntFunction<S> reduce(final int identity, final IntBinaryOperator accumulator) {
+    return FusedLoop.toInt(FusedLoop.loop(source, stages,
+        MethodHandles.constant(int.class, identity),
+        FusedLoop.bound(accumulator, IntBinaryOperator.class, "applyAsInt",
+            MethodType.methodType(int.class, int.class, int.class))));
+  }
+}
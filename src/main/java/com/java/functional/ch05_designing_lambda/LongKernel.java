@@ -0,0 +1,24 @@
+package com.java.functional.ch05_designing_lambda;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.util.function.ToLongFunction;
+
+/**
+ * The template of the {@link FusedLoop} kernels that return a {@code long}. Only the hidden
+ * copies made by {@link HiddenClasses} are instantiated, each with its own
+ * {@code (Object)long} loop handle as class data.
+ */
+final class LongKernel implements ToLongFunction<Object> {
+  private static final MethodHandle LOOP =
+      HiddenClasses.classData(MethodHandles.lookup(), 0, MethodHandle.class);
+
+  @Override
+  public long applyAsLong(final Object source) {
+    try {
+      return (long) LOOP.invokeExact(source);
+    } catch (Throwable e) {
+      throw HiddenClasses.unchecked(e);
+    }
+  }
+}
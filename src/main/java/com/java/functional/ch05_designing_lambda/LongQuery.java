@@ -0,0 +1,46 @@
+package com.java.functional.ch05_designing_lambda;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.List;
+import java.util.function.LongBinaryOperator;
+import java.util.function.LongPredicate;
+import java.util.function.LongUnaryOperator;
+import java.util.function.ToLongFunction;
+
+/** The {@code long} stages of a {@link Query}; values stay unboxed through the compiled loop. */
+public final class LongQuery<S> {
+  private final FusedLoop.Source source;
+  private final List<FusedLoop.Stage> stages;
+
+  LongQuery(final FusedLoop.Source source, final List<FusedLoop.Stage> stages) {
+    this.source = source;
+    this.stages = stages;
+  }
+
+  public LongQuery<S> filter(final LongPredicate predicate) {
+    return new LongQuery<>(source, FusedLoop.plus(stages, FusedLoop.filter(
+        FusedLoop.bound(predicate, LongPredicate.class, "test",
+            MethodType.methodType(boolean.class, long.class)))));
+  }
+
+  public LongQuery<S> map(final LongUnaryOperator mapper) {
+    return new LongQuery<>(source, FusedLoop.plus(stages, FusedLoop.map(FusedLoop.bound(mapper,
+        LongUnaryOperator.class, "applyAsLong", MethodType.methodType(long.class, long.class)))));
+  }
+
+  public ToLongFunction<S> sum() {
+    return reduce(0, Long::sum);
+  }
+
+  public ToLongFunction<S> count() {
+    return FusedLoop.toLong(FusedLoop.count(source, stages, long.class));
+  }
+
+  public ToLongFunction<S> reduce(final long identity, final LongBinaryOperator accumulator) {
+    return FusedLoop.toLong(FusedLoop.loop(source, stages,
+        MethodHandles.constant(long.class, identity),
+        FusedLoop.bound(accumulator, LongBinaryOperator.class, "applyAsLong",
+            MethodType.methodType(long.class, long.class, long.class))));
+  }
+}
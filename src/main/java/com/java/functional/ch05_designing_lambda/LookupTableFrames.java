@@ -0,0 +1,44 @@
+package com.java.functional.ch05_designing_lambda;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.function.IntUnaryOperator;
+
+public class LookupTableFrames {
+  public static void main(String[] args) {
+    final ChannelFilter[] chain = {
+        ChannelFilter.scale(1.2), ChannelFilter.gamma(2.2), ChannelFilter.scale(0.7),
+        ChannelFilter.mask(true, true, false)};
+    // hiding the ChannelFilter type keeps Camera from compiling the chain into tables
+    final IntUnaryOperator[] direct = Arrays.stream(chain)
+        .map(channelFilter -> (IntUnaryOperator) argb -> channelFilter.applyAsInt(argb))
+        .toArray(IntUnaryOperator[]::new);
+
+    final Camera camera = new Camera();
+    for (int[] size : new int[][] {{1920, 1080}, {3840, 2160}}) {
+      final int width = size[0];
+      final int height = size[1];
+      final int[] frame = new Random(42).ints(width * height).toArray();
+      final int[] target = new int[frame.length];
+      for (int run = 0; run < 5; run++) {
+        camera.setPixelFilters(direct);
+        long start = System.nanoTime();
+        camera.capture(frame, target, width, height);
+        final long directNanos = System.nanoTime() - start;
+        final int[] expected = target.clone();
+
+        camera.setPixelFilters(chain);
+        start = System.nanoTime();
+        camera.capture(frame, target, width, height);
+        final long tableNanos = System.nanoTime() - start;
+
+        System.out.println(String.format(
+            "Run %d (%dx%d): direct %d ms (%.0f Mpixel/s), lookup tables %d ms (%.0f Mpixel/s), "
+                + "identical: %b",
+            run, width, height, directNanos / 1_000_000, frame.length * 1e3 / directNanos,
+            tableNanos / 1_000_000, frame.length * 1e3 / tableNanos,
+            Arrays.equals(expected, target)));
+      }
+    }
+  }
+}
@@ -0,0 +1,73 @@
+package com.java.functional.ch05_designing_lambda;
+
+import java.lang.management.ManagementFactory;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/** Where a {@link PipelineProbe} keeps its {@link StageMetrics}. */
+public interface MetricsRegistry {
+  StageMetrics stage(String pipeline, String stage, int sampleEvery);
+
+  List<StageMetrics.Snapshot> snapshot();
+
+  static MetricsRegistry inMemory() {
+    return new InMemory();
+  }
+
+  /** Also registers every stage with the platform MBean server. */
+  static MetricsRegistry jmx() {
+    return new Jmx(ManagementFactory.getPlatformMBeanServer());
+  }
+
+  class InMemory implements MetricsRegistry {
+    private final Map<String, StageMetrics> stages = new ConcurrentHashMap<>();
+
+    @Override
+    public StageMetrics stage(final String pipeline, final String stage, final int sampleEvery) {
+      return stages.computeIfAbsent(pipeline + '/' + stage,
+          key -> created(new StageMetrics(pipeline, stage, sampleEvery)));
+    }
+
+    @Override
+    public List<StageMetrics.Snapshot> snapshot() {
+      return stages.values().stream()
+          .map(StageMetrics::snapshot)
+          .sorted(Comparator.comparing(StageMetrics.Snapshot::pipeline)
+              .thenComparing(StageMetrics.Snapshot::stage))
+          .collect(Collectors.toList());
+    }
+
+    protected StageMetrics created(final StageMetrics metrics) {
+      return metrics;
+    }
+  }
+
+  class Jmx extends InMemory {
+    private final MBeanServer server;
+
+    public Jmx(final MBeanServer server) {
+      this.server = server;
+    }
+
+    @Override
+    protected StageMetrics created(final StageMetrics metrics) {
+      try {
+        final ObjectName name = new ObjectName(String.format(
+            "com.java.functional:type=PipelineStage,pipeline=%s,stage=%s",
+            ObjectName.quote(metrics.getPipeline()), ObjectName.quote(metrics.getStage())));
+        if (!server.isRegistered(name)) {
+          server.registerMBean(metrics, name);
+        }
+        return metrics;
+      } catch (JMException e) {
+        throw new RuntimeException(e);
+      }
+    }
+  }
+}
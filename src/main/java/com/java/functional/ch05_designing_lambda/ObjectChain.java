@@ -0,0 +1,32 @@
+package com.java.functional.ch05_designing_lambda;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.util.List;
+import java.util.function.UnaryOperator;
+
+/**
+ * The template of the {@link Composition} chains of objects. Only the hidden copies made by
+ * {@link HiddenClasses} are instantiated, each with its own {@code (Object)Object} chain handle
+ * and list of stages as class data.
+ */
+final class ObjectChain implements UnaryOperator<Object>, Composition.Staged {
+  private static final MethodHandle CHAIN =
+      HiddenClasses.classData(MethodHandles.lookup(), 0, MethodHandle.class);
+  private static final List<?> STAGES =
+      HiddenClasses.classData(MethodHandles.lookup(), 1, List.class);
+
+  @Override
+  public Object apply(final Object value) {
+    try {
+      return (Object) CHAIN.invokeExact(value);
+    } catch (Throwable e) {
+      throw HiddenClasses.unchecked(e);
+    }
+  }
+
+  @Override
+  public List<?> stages() {
+    return STAGES;
+  }
+}
@@ -0,0 +1,24 @@
+package com.java.functional.ch05_designing_lambda;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.util.function.Function;
+
+/**
+ * The template of the {@link FusedLoop} kernels that return an object. Only the hidden
+ * copies made by {@link HiddenClasses} are instantiated, each with its own
+ * {@code (Object)Object} loop handle as class data.
+ */
+final class ObjectKernel implements Function<Object, Object> {
+  private static final MethodHandle LOOP =
+      HiddenClasses.classData(MethodHandles.lookup(), 0, MethodHandle.class);
+
+  @Override
+  public Object apply(final Object source) {
+    try {
+      return (Object) LOOP.invokeExact(source);
+    } catch (Throwable e) {
+      throw HiddenClasses.unchecked(e);
+    }
+  }
+}
@@ -0,0 +1,376 @@
+package com.java.functional.ch05_designing_lambda;
+
+import java.util.Comparator;
+import java.util.Spliterator;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+import java.util.function.IntPredicate;
+import java.util.function.IntUnaryOperator;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collector;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Opt-in, per-stage instrumentation for stream pipelines. The probe decorates the lambdas handed
+ * to each stage, so the pipeline keeps its shape:
+ *
+ * <pre>
+ * final PipelineProbe probe = PipelineProbe.of("totalAssetValues", registry);
+ * assets.stream()
+ *     .filter(probe.filter("selector", assetSelector))
+ *     .mapToLong(probe.mapToLong("value", Asset::getValue))
+ *     .sum();
+ * </pre>
+ *
+ * <p>A {@link #disabled()} probe returns every lambda and stream unchanged, so leaving the calls
+ * in place costs nothing when instrumentation is off.
+ */
+public final class PipelineProbe {
+  private static final PipelineProbe DISABLED = new PipelineProbe(null, null, 1);
+
+  private final String pipeline;
+  private final MetricsRegistry registry;
+  private final int sampleEvery;
+  private final CopyOnWriteArrayList<StageMetrics> stages = new CopyOnWriteArrayList<>();
+
+  private PipelineProbe(final String pipeline, final MetricsRegistry registry,
+      final int sampleEvery) {
+    this.pipeline = pipeline;
+    this.registry = registry;
+    this.sampleEvery = sampleEvery;
+  }
+
+  public static PipelineProbe disabled() {
+    return DISABLED;
+  }
+
+  /** Times and measures allocation for one in 64 elements per stage, in runs. */
+  public static PipelineProbe of(final String pipeline, final MetricsRegistry registry) {
+    return new PipelineProbe(pipeline, registry, 64);
+  }
+
+  public PipelineProbe sampleEvery(final int sampleEvery) {
+    if (sampleEvery < 1) {
+      throw new IllegalArgumentException("sampleEvery must be positive: " + sampleEvery);
+    }
+    return registry == null ? this : new PipelineProbe(pipeline, registry, sampleEvery);
+  }
+
+  public boolean isEnabled() {
+    return registry != null;
+  }
+
+  /**
+   * Counts the elements the source produces, flushing the probe at the end of each split. The
+   * returned stream no longer reports its size, so that operations such as {@code count()} still
+   * traverse, and count, the elements.
+   */
+  public <T> Stream<T> source(final String stage, final Stream<T> source) {
+    if (!isEnabled()) {
+      return source;
+    }
+    return StreamSupport.stream(new CountedSpliterator<>(source.spliterator(),
+        passThroughMetrics(stage)), source.isParallel()).onClose(source::close);
+  }
+
+  public IntStream source(final String stage, final IntStream source) {
+    if (!isEnabled()) {
+      return source;
+    }
+    return StreamSupport.intStream(new CountedIntSpliterator(source.spliterator(),
+        passThroughMetrics(stage)), source.isParallel()).onClose(source::close);
+  }
+
+  public <T> Predicate<T> filter(final String stage, final Predicate<T> predicate) {
+    if (!isEnabled()) {
+      return predicate;
+    }
+    final StageMetrics metrics = metrics(stage);
+    return element -> {
+      final StageMetrics.Batch batch = metrics.batch();
+      final boolean accepted;
+      if (batch.countIn()) {
+        final long bytes = StageMetrics.allocatedBytes();
+        final long start = System.nanoTime();
+        accepted = predicate.test(element);
+        batch.recordSample(System.nanoTime() - start, StageMetrics.allocatedBytes() - bytes);
+      } else {
+        accepted = predicate.test(element);
+      }
+      if (accepted) {
+        batch.countOut();
+      }
+      return accepted;
+    };
+  }
+
+  public IntPredicate intFilter(final String stage, final IntPredicate predicate) {
+    if (!isEnabled()) {
+      return predicate;
+    }
+    final StageMetrics metrics = metrics(stage);
+    return element -> {
+      final StageMetrics.Batch batch = metrics.batch();
+      final boolean accepted;
+      if (batch.countIn()) {
+        final long bytes = StageMetrics.allocatedBytes();
+        final long start = System.nanoTime();
+        accepted = predicate.test(element);
+        batch.recordSample(System.nanoTime() - start, StageMetrics.allocatedBytes() - bytes);
+      } else {
+        accepted = predicate.test(element);
+      }
+      if (accepted) {
+        batch.countOut();
+      }
+      return accepted;
+    };
+  }
+
+  public <T, R> Function<T, R> map(final String stage, final Function<T, R> mapper) {
+    if (!isEnabled()) {
+      return mapper;
+    }
+    final StageMetrics metrics = passThroughMetrics(stage);
+    return element -> {
+      final StageMetrics.Batch batch = metrics.batch();
+      if (!batch.countIn()) {
+        return mapper.apply(element);
+      }
+      final long bytes = StageMetrics.allocatedBytes();
+      final long start = System.nanoTime();
+      final R result = mapper.apply(element);
+      batch.recordSample(System.nanoTime() - start, StageMetrics.allocatedBytes() - bytes);
+      return result;
+    };
+  }
+
+  public <T> ToIntFunction<T> mapToInt(final String stage, final ToIntFunction<T> mapper) {
+    if (!isEnabled()) {
+      return mapper;
+    }
+    final StageMetrics metrics = passThroughMetrics(stage);
+    return element -> {
+      final StageMetrics.Batch batch = metrics.batch();
+      if (!batch.countIn()) {
+        return mapper.applyAsInt(element);
+      }
+      final long bytes = StageMetrics.allocatedBytes();
+      final long start = System.nanoTime();
+      final int result = mapper.applyAsInt(element);
+      batch.recordSample(System.nanoTime() - start, StageMetrics.allocatedBytes() - bytes);
+      return result;
+    };
+  }
+
+  public <T> ToLongFunction<T> mapToLong(final String stage, final ToLongFunction<T> mapper) {
+    if (!isEnabled()) {
+      return mapper;
+    }
+    final StageMetrics metrics = passThroughMetrics(stage);
+    return element -> {
+      final StageMetrics.Batch batch = metrics.batch();
+      if (!batch.countIn()) {
+        return mapper.applyAsLong(element);
+      }
+      final long bytes = StageMetrics.allocatedBytes();
+      final long start = System.nanoTime();
+      final long result = mapper.applyAsLong(element);
+      batch.recordSample(System.nanoTime() - start, StageMetrics.allocatedBytes() - bytes);
+      return result;
+    };
+  }
+
+  public IntUnaryOperator intMap(final String stage, final IntUnaryOperator mapper) {
+    if (!isEnabled()) {
+      return mapper;
+    }
+    final StageMetrics metrics = passThroughMetrics(stage);
+    return element -> {
+      final StageMetrics.Batch batch = metrics.batch();
+      if (!batch.countIn()) {
+        return mapper.applyAsInt(element);
+      }
+      final long bytes = StageMetrics.allocatedBytes();
+      final long start = System.nanoTime();
+      final int result = mapper.applyAsInt(element);
+      batch.recordSample(System.nanoTime() - start, StageMetrics.allocatedBytes() - bytes);
+      return result;
+    };
+  }
+
+  /**
+   * Measures the collector's accumulator per element; the stage's output count is the number of
+   * results finished. Combining and finishing flush the calling thread's counts.
+   */
+  public <T, A, R> Collector<T, A, R> collect(final String stage,
+      final Collector<T, A, R> collector) {
+    if (!isEnabled()) {
+      return collector;
+    }
+    final StageMetrics metrics = metrics(stage);
+    final BiConsumer<A, T> accumulator = collector.accumulator();
+    final BinaryOperator<A> combiner = collector.combiner();
+    final Function<A, R> finisher = collector.finisher();
+    return Collector.of(collector.supplier(),
+        (container, element) -> {
+          final StageMetrics.Batch batch = metrics.batch();
+          if (!batch.countIn()) {
+            accumulator.accept(container, element);
+            return;
+          }
+          final long bytes = StageMetrics.allocatedBytes();
+          final long start = System.nanoTime();
+          accumulator.accept(container, element);
+          batch.recordSample(System.nanoTime() - start, StageMetrics.allocatedBytes() - bytes);
+        },
+        (left, right) -> {
+          flush();
+          return combiner.apply(left, right);
+        },
+        container -> {
+          metrics.batch().countOut();
+          flush();
+          return finisher.apply(container);
+        },
+        collector.characteristics().stream()
+            .filter(characteristic -> characteristic != Collector.Characteristics.IDENTITY_FINISH)
+            .toArray(Collector.Characteristics[]::new));
+  }
+
+  /**
+   * Adds the counts the calling thread has batched for this probe's stages to their totals. A
+   * probed {@link #source} does so at the end of every split it hands out.
+   */
+  public void flush() {
+    stages.forEach(StageMetrics::flush);
+  }
+
+  private StageMetrics metrics(final String stage) {
+    final StageMetrics metrics = registry.stage(pipeline, stage, sampleEvery);
+    stages.addIfAbsent(metrics);
+    return metrics;
+  }
+
+  private StageMetrics passThroughMetrics(final String stage) {
+    final StageMetrics metrics = metrics(stage);
+    metrics.passThrough();
+    return metrics;
+  }
+
+  private static int unsized(final int characteristics) {
+    return characteristics & ~(Spliterator.SIZED | Spliterator.SUBSIZED);
+  }
+
+  private final class CountedSpliterator<T> implements Spliterator<T> {
+    private final Spliterator<T> source;
+    private final StageMetrics metrics;
+
+    CountedSpliterator(final Spliterator<T> source, final StageMetrics metrics) {
+      this.source = source;
+      this.metrics = metrics;
+    }
+
+    @Override
+    public boolean tryAdvance(final Consumer<? super T> action) {
+      if (source.tryAdvance(action)) {
+        metrics.batch().countIn(1);
+        return true;
+      }
+      flush();
+      return false;
+    }
+
+    @Override
+    public void forEachRemaining(final Consumer<? super T> action) {
+      final long[] count = new long[1];
+      source.forEachRemaining(element -> {
+        count[0]++;
+        action.accept(element);
+      });
+      metrics.batch().countIn(count[0]);
+      flush();
+    }
+
+    @Override
+    public Spliterator<T> trySplit() {
+      final Spliterator<T> prefix = source.trySplit();
+      return prefix == null ? null : new CountedSpliterator<>(prefix, metrics);
+    }
+
+    @Override
+    public long estimateSize() {
+      return source.estimateSize();
+    }
+
+    @Override
+    public int characteristics() {
+      return unsized(source.characteristics());
+    }
+
+    @Override
+    public Comparator<? super T> getComparator() {
+      return source.getComparator();
+    }
+  }
+
+  private final class CountedIntSpliterator implements Spliterator.OfInt {
+    private final Spliterator.OfInt source;
+    private final StageMetrics metrics;
+
+    CountedIntSpliterator(final Spliterator.OfInt source, final StageMetrics metrics) {
+      this.source = source;
+      this.metrics = metrics;
+    }
+
+    @Override
+    public boolean tryAdvance(final IntConsumer action) {
+      if (source.tryAdvance(action)) {
+        metrics.batch().countIn(1);
+        return true;
+      }
+      flush();
+      return false;
+    }
+
+    @Override
+    public void forEachRemaining(final IntConsumer action) {
+      final long[] count = new long[1];
+      source.forEachRemaining((int element) -> {
+        count[0]++;
+        action.accept(element);
+      });
+      metrics.batch().countIn(count[0]);
+      flush();
+    }
+
+    @Override
+    public Spliterator.OfInt trySplit() {
+      final Spliterator.OfInt prefix = source.trySplit();
+      return prefix == null ? null : new CountedIntSpliterator(prefix, metrics);
+    }
+
+    @Override
+    public long estimateSize() {
+      return source.estimateSize();
+    }
+
+    @Override
+    public int characteristics() {
+      return unsized(source.characteristics());
+    }
+
+    @Override
+    public Comparator<? super Integer> getComparator() {
+      return source.getComparator();
+    }
+  }
+}
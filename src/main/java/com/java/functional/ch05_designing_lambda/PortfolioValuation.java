@@ -0,0 +1,59 @@
+package com.java.functional.ch05_designing_lambda;
+
+import com.java.functional.ch05_designing_lambda.CalculateNAV.PortfolioWorth;
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+public class PortfolioValuation {
+  public static void main(String[] args) {
+    final int positions = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+    final long latencyMillis = args.length > 1 ? Long.parseLong(args[1]) : 20;
+
+    final CalculateNAV calculateNAV = new CalculateNAV(fakePriceFinder(latencyMillis));
+    final Map<String, Integer> portfolio = new LinkedHashMap<>();
+    for (int i = 0; i < positions; i++) {
+      portfolio.put("T" + i, 100 + i);
+    }
+    portfolio.put("FAIL", 1);
+
+    long start = System.nanoTime();
+    BigDecimal sequentialTotal = BigDecimal.ZERO;
+    for (Map.Entry<String, Integer> position : portfolio.entrySet()) {
+      try {
+        sequentialTotal = sequentialTotal.add(
+            calculateNAV.calculateStockWorth(position.getKey(), position.getValue()));
+      } catch (RuntimeException exception) {
+        // skipped, same as the failures reported by calculatePortfolioWorth
+      }
+    }
+    report("Sequential", portfolio.size(), System.nanoTime() - start, sequentialTotal);
+
+    start = System.nanoTime();
+    final PortfolioWorth worth = calculateNAV.calculatePortfolioWorth(portfolio);
+    report("Concurrent", portfolio.size(), System.nanoTime() - start, worth.total());
+    System.out.println("Failed lookups: " + worth.failures().keySet());
+  }
+
+  private static Function<String, BigDecimal> fakePriceFinder(final long latencyMillis) {
+    return ticker -> {
+      try {
+        Thread.sleep(latencyMillis);
+      } catch (InterruptedException exception) {
+        Thread.currentThread().interrupt();
+        throw new RuntimeException(exception);
+      }
+      if (ticker.equals("FAIL")) {
+        throw new IllegalArgumentException("Unknown ticker " + ticker);
+      }
+      return BigDecimal.valueOf(ticker.hashCode() & 0xFFFF, 2);
+    };
+  }
+
+  private static void report(final String label, final int positions, final long nanos,
+      final BigDecimal total) {
+    System.out.println(String.format("%s: %d positions in %d ms (%.0f positions/s), total $%.2f",
+        label, positions, nanos / 1_000_000, positions * 1e9 / nanos, total));
+  }
+}
@@ -0,0 +1,79 @@
+package com.java.functional.ch05_designing_lambda;
+
+import com.google.common.base.Ticker;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.LoadingCache;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * A {@code priceFinder} that sits in front of another one, e.g. {@code FinanceData::getPrice}.
+ *
+ * <p>Prices are kept for at most {@code maximumSize} tickers and are reloaded once they are older
+ * than {@code refreshAfterWrite}; entries older than {@code expireAfterWrite} are dropped.
+ * Concurrent misses on the same ticker wait for a single call to the underlying
+ * {@code priceFinder}.
+ */
+public class PriceCache implements Function<String, BigDecimal> {
+  private final LoadingCache<String, BigDecimal> cache;
+
+  public PriceCache(final Function<String, BigDecimal> priceFinder, final long maximumSize,
+      final Duration expireAfterWrite, final Duration refreshAfterWrite) {
+    this(priceFinder, maximumSize, expireAfterWrite, refreshAfterWrite, Ticker.systemTicker());
+  }
+
+  public PriceCache(final Function<String, BigDecimal> priceFinder, final long maximumSize,
+      final Duration expireAfterWrite, final Duration refreshAfterWrite, final Ticker ticker) {
+    cache = CacheBuilder.newBuilder()
+        .maximumSize(maximumSize)
+        .expireAfterWrite(expireAfterWrite)
+        .refreshAfterWrite(refreshAfterWrite)
+        .ticker(ticker)
+        .recordStats()
+        .build(CacheLoader.from(priceFinder::apply));
+  }
+
+  @Override
+  public BigDecimal apply(final String ticker) {
+    try {
+      return cache.getUnchecked(ticker);
+    } catch (UncheckedExecutionException exception) {
+      if (exception.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      throw exception;
+    }
+  }
+
+  public void invalidate(final String ticker) {
+    cache.invalidate(ticker);
+  }
+
+  public long size() {
+    return cache.size();
+  }
+
+  public CacheStats stats() {
+    return cache.stats();
+  }
+
+  public long hitCount() {
+    return stats().hitCount();
+  }
+
+  public long missCount() {
+    return stats().missCount();
+  }
+
+  public double hitRate() {
+    return stats().hitRate();
+  }
+
+  public Duration averageLoadPenalty() {
+    return Duration.ofNanos((long) stats().averageLoadPenalty());
+  }
+}
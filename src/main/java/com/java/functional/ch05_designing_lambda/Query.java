@@ -0,0 +1,106 @@
+package com.java.functional.ch05_designing_lambda;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * A fluent description of a {@code filter}/{@code map}/{@code reduce} pipeline that is compiled
+ * once into a single loop and then run as often as we like:
+ *
+ * <pre>
+ * final ToLongFunction&lt;List&lt;Asset&gt;&gt; bondTotal = Query.from(Asset.class)
+ *     .filter(asset -&gt; asset.getType() == AssetType.BOND)
+ *     .mapToLong(Asset::getValue)
+ *     .sum();
+ * bondTotal.applyAsLong(assets);
+ * </pre>
+ *
+ * <p>Unlike a {@code Stream}, running the compiled query builds no stages, sinks or
+ * spliterators, and primitive stages ({@link #mapToInt}, {@link #mapToLong}) never box. The
+ * builder is immutable, so a partial query can be shared and extended; each terminal method
+ * compiles a new loop and should be called once, not per evaluation.
+ *
+ * @param <S> the source the compiled query runs over: a {@code List}, an array or a primitive
+ *     array
+ * @param <E> the type of the elements at this point of the pipeline
+ */
+public final class Query<S, E> {
+  private static final MethodType TEST = MethodType.methodType(boolean.class, Object.class);
+
+  private final FusedLoop.Source source;
+  private final List<FusedLoop.Stage> stages;
+
+  Query(final FusedLoop.Source source, final List<FusedLoop.Stage> stages) {
+    this.source = source;
+    this.stages = stages;
+  }
+
+  public static <T> Query<List<T>, T> from(final Class<T> type) {
+    return new Query<>(FusedLoop.Source.list(), List.of());
+  }
+
+  public static <T> Query<T[], T> fromArray(final Class<T> type) {
+    return new Query<>(FusedLoop.Source.array(Object[].class), List.of());
+  }
+
+  public static IntQuery<int[]> ints() {
+    return new IntQuery<>(FusedLoop.Source.array(int[].class), List.of());
+  }
+
+  public static LongQuery<long[]> longs() {
+    return new LongQuery<>(FusedLoop.Source.array(long[].class), List.of());
+  }
+
+  public Query<S, E> filter(final Predicate<? super E> predicate) {
+    return new Query<>(source, FusedLoop.plus(stages,
+        FusedLoop.filter(FusedLoop.bound(predicate, Predicate.class, "test", TEST))));
+  }
+
+  public <R> Query<S, R> map(final Function<? super E, ? extends R> mapper) {
+    return new Query<>(source, FusedLoop.plus(stages, FusedLoop.map(FusedLoop.bound(mapper,
+        Function.class, "apply", MethodType.methodType(Object.class, Object.class)))));
+  }
+
+  public IntQuery<S> mapToInt(final ToIntFunction<? super E> mapper) {
+    return new IntQuery<>(source, FusedLoop.plus(stages, FusedLoop.map(FusedLoop.bound(mapper,
+        ToIntFunction.class, "applyAsInt", MethodType.methodType(int.class, Object.class)))));
+  }
+
+  public LongQuery<S> mapToLong(final ToLongFunction<? super E> mapper) {
+    return new LongQuery<>(source, FusedLoop.plus(stages, FusedLoop.map(FusedLoop.bound(mapper,
+        ToLongFunction.class, "applyAsLong", MethodType.methodType(long.class, Object.class)))));
+  }
+
+  public ToLongFunction<S> count() {
+    return FusedLoop.toLong(FusedLoop.count(source, stages, Object.class));
+  }
+
+  public Function<S, E> reduce(final E identity, final BinaryOperator<E> accumulator) {
+    return FusedLoop.toObject(FusedLoop.loop(source, stages,
+        MethodHandles.constant(Object.class, identity),
+        FusedLoop.bound(accumulator, BinaryOperator.class, "apply",
+            MethodType.methodType(Object.class, Object.class, Object.class))));
+  }
+
+  /** Collects the elements into a new, mutable {@code ArrayList} per evaluation. */
+  public Function<S, List<E>> toList() {
+    final MethodHandle newList;
+    try {
+      newList = MethodHandles.publicLookup()
+          .findConstructor(ArrayList.class, MethodType.methodType(void.class))
+          .asType(MethodType.methodType(Object.class));
+    } catch (ReflectiveOperationException e) {
+      throw new IllegalStateException(e);
+    }
+    return FusedLoop.toObject(FusedLoop.loop(source, stages, newList, FusedLoop.helper("add",
+        MethodType.methodType(Object.class, Object.class, Object.class))));
+  }
+}
@@ -0,0 +1,112 @@
+package com.java.functional.ch05_designing_lambda;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collector;
+
+/**
+ * Evaluates several selectors over the same data in one traversal. Where we would otherwise
+ * stream a list once per {@code Predicate}, these collectors test every element against all of
+ * them and feed the matches into a downstream per selector. Both work on parallel streams.
+ */
+public class QueryBatch {
+  private QueryBatch() {
+  }
+
+  public static <T, R> Collector<T, ?, List<R>> collecting(
+      final List<? extends Predicate<? super T>> selectors,
+      final Collector<? super T, ?, R> downstream) {
+    return collecting(selectors, Collections.nCopies(selectors.size(), downstream));
+  }
+
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  public static <T, R> Collector<T, ?, List<R>> collecting(
+      final List<? extends Predicate<? super T>> selectors,
+      final List<? extends Collector<? super T, ?, R>> downstreams) {
+    if (selectors.size() != downstreams.size()) {
+      throw new IllegalArgumentException("Need exactly one downstream collector per selector");
+    }
+    final int count = selectors.size();
+    final Predicate<? super T>[] tests = selectors.toArray(new Predicate[0]);
+    final Supplier<Object>[] suppliers = new Supplier[count];
+    final BiConsumer<Object, ? super T>[] accumulators = new BiConsumer[count];
+    final BinaryOperator<Object>[] combiners = new BinaryOperator[count];
+    final Function<Object, R>[] finishers = new Function[count];
+    for (int i = 0; i < count; i++) {
+      final Collector<? super T, Object, R> downstream =
+          (Collector<? super T, Object, R>) downstreams.get(i);
+      suppliers[i] = downstream.supplier();
+      accumulators[i] = downstream.accumulator();
+      combiners[i] = downstream.combiner();
+      finishers[i] = downstream.finisher();
+    }
+
+    return Collector.of(
+        () -> {
+          final Object[] containers = new Object[count];
+          for (int i = 0; i < count; i++) {
+            containers[i] = suppliers[i].get();
+          }
+          return containers;
+        },
+        (containers, element) -> {
+          for (int i = 0; i < count; i++) {
+            if (tests[i].test(element)) {
+              ((BiConsumer<Object, T>) accumulators[i]).accept(containers[i], element);
+            }
+          }
+        },
+        (left, right) -> {
+          for (int i = 0; i < count; i++) {
+            left[i] = combiners[i].apply(left[i], right[i]);
+          }
+          return left;
+        },
+        containers -> {
+          final List<R> results = new ArrayList<>(count);
+          for (int i = 0; i < count; i++) {
+            results.add(finishers[i].apply(containers[i]));
+          }
+          return results;
+        });
+  }
+
+  /** Totals per selector; throws {@link ArithmeticException} if a total overflows. */
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  public static <T> Collector<T, ?, long[]> summingLong(
+      final List<? extends Predicate<? super T>> selectors,
+      final ToLongFunction<? super T> mapper) {
+    final int count = selectors.size();
+    final Predicate<? super T>[] tests = selectors.toArray(new Predicate[0]);
+    return Collector.of(
+        () -> new long[count],
+        (totals, element) -> {
+          final long value = mapper.applyAsLong(element);
+          for (int i = 0; i < count; i++) {
+            if (tests[i].test(element)) {
+              totals[i] = Math.addExact(totals[i], value);
+            }
+          }
+        },
+        (left, right) -> {
+          for (int i = 0; i < count; i++) {
+            left[i] = Math.addExact(left[i], right[i]);
+          }
+          return left;
+        });
+  }
+
+  public static <T> long[] sumOf(final List<T> elements,
+      final List<? extends Predicate<? super T>> selectors,
+      final ToLongFunction<? super T> mapper, final boolean parallel) {
+    return (parallel ? elements.parallelStream() : elements.stream())
+        .collect(summingLong(selectors, mapper));
+  }
+}
@@ -3,6 +3,7 @@ package com.java.functional.ch05_designing_lambda;
 import com.java.functional.ch05_designing_lambda.Asset.AssetType;
 import java.util.Arrays;
 import java.util.List;
+import java.util.function.Predicate;
 
 public class SeparatingConcerns {
 
@@ -15,6 +16,19 @@ public class SeparatingConcerns {
         AssetUtility.totalAssetValues(assets, asset -> asset.getType() == AssetType.BOND)));
     System.out.println(String.format("Total of all stock: %d%n",
         AssetUtility.totalAssetValues(assets, asset -> asset.getType() == AssetType.STOCK)));
+
+    final long[] batchTotals = QueryBatch.sumOf(assets,
+        List.<Predicate<Asset>>of(
+            asset -> true,
+            asset -> asset.getType() == AssetType.BOND,
+            asset -> asset.getType() == AssetType.STOCK),
+        Asset::getValue, false);
+    System.out.println(String.format("All, bonds and stock in a single pass: %s%n",
+        Arrays.toString(batchTotals)));
+
+    final AssetBook book = AssetBook.of(assets);
+    System.out.println(String.format("Totals by type in a single pass: %s, all: %d%n",
+        book.totalsByType(), book.total()));
   }
 
   final List<Asset> getAsset() {
@@ -0,0 +1,277 @@
+package com.java.functional.ch05_designing_lambda;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters for one stage of an instrumented pipeline. Every element is counted; one in
+ * {@code sampleEvery} is timed and has its allocation measured, and the totals are extrapolated
+ * from those samples. All counters are safe to update from parallel streams.
+ *
+ * <p>Samples are taken in runs of {@value #RUN} consecutive elements. Each timed element is
+ * followed by a timed empty region, and the run's empty time, which is what reading the clock
+ * costs in the same state, is subtracted from the run. The time estimate is the mean cost per
+ * element of the runs kept in a reservoir, after the fastest and slowest {@value #TRIM_PERCENT}%
+ * (at least one of each) are trimmed, so a GC pause inside one run is not multiplied by
+ * {@code sampleEvery}.
+ *
+ * <p>Each thread counts into its own {@link Batch}, which is added to the shared totals at the
+ * start of every run and whenever the probe flushes, so a snapshot may miss fewer than
+ * {@code RUN * sampleEvery} elements per thread that are still batched. {@link #reset()} also
+ * discards what every thread has batched.
+ */
+public final class StageMetrics implements StageMetricsMBean {
+  static final int RUN = 16;
+  private static final int RESERVOIR = 1024;
+  private static final int TRIM_PERCENT = 10;
+  private static final com.sun.management.ThreadMXBean THREADS = threads();
+
+  private final String pipeline;
+  private final String stage;
+  private final int sampleEvery;
+  private final LongAdder elementsIn = new LongAdder();
+  private final LongAdder elementsOut = new LongAdder();
+  private final LongAdder sampledElements = new LongAdder();
+  private final LongAdder sampledAllocatedBytes = new LongAdder();
+  private final double[] runs = new double[RESERVOIR];
+  private long runCount;
+  private final ThreadLocal<Batch> batches = ThreadLocal.withInitial(() -> new Batch(this));
+  private volatile int generation;
+  private volatile boolean passThrough;
+
+  public StageMetrics(final String pipeline, final String stage, final int sampleEvery) {
+    if (sampleEvery < 1) {
+      throw new IllegalArgumentException("sampleEvery must be positive: " + sampleEvery);
+    }
+    this.pipeline = pipeline;
+    this.stage = stage;
+    this.sampleEvery = sampleEvery;
+  }
+
+  public record Snapshot(String pipeline, String stage, long elementsIn, long elementsOut,
+      long estimatedNanos, long estimatedAllocatedBytes) {
+    public double selectivity() {
+      return elementsIn == 0 ? 1 : (double) elementsOut / elementsIn;
+    }
+
+    @Override
+    public String toString() {
+      return String.format("%s/%s: in=%d out=%d selectivity=%.3f time=%.3f ms alloc=%d B",
+          pipeline, stage, elementsIn, elementsOut, selectivity(), estimatedNanos / 1e6,
+          estimatedAllocatedBytes);
+    }
+  }
+
+  /** Includes the counts batched by the calling thread, but not those of other threads. */
+  public Snapshot snapshot() {
+    flush();
+    return new Snapshot(pipeline, stage, getElementsIn(), getElementsOut(), getEstimatedNanos(),
+        getEstimatedAllocatedBytes());
+  }
+
+  @Override
+  public String getPipeline() {
+    return pipeline;
+  }
+
+  @Override
+  public String getStage() {
+    return stage;
+  }
+
+  @Override
+  public long getElementsIn() {
+    return elementsIn.sum();
+  }
+
+  @Override
+  public long getElementsOut() {
+    return passThrough ? elementsIn.sum() : elementsOut.sum();
+  }
+
+  @Override
+  public double getSelectivity() {
+    return snapshot().selectivity();
+  }
+
+  @Override
+  public long getEstimatedNanos() {
+    final double[] kept;
+    synchronized (runs) {
+      kept = Arrays.copyOf(runs, (int) Math.min(runCount, RESERVOIR));
+    }
+    if (kept.length == 0) {
+      return 0;
+    }
+    Arrays.sort(kept);
+    final int trim = Math.min((kept.length * TRIM_PERCENT + 99) / 100, (kept.length - 1) / 2);
+    double sum = 0;
+    for (int i = trim; i < kept.length - trim; i++) {
+      sum += kept[i];
+    }
+    return Math.max(0, (long) (sum / (kept.length - 2 * trim) * getElementsIn()));
+  }
+
+  @Override
+  public long getEstimatedAllocatedBytes() {
+    final long sampled = sampledElements.sum();
+    return sampled == 0 ? 0
+        : (long) ((double) sampledAllocatedBytes.sum() * getElementsIn() / sampled);
+  }
+
+  /** Clears the totals and, as each thread next counts or flushes, what it has batched. */
+  @Override
+  public void reset() {
+    synchronized (runs) {
+      generation++;
+      elementsIn.reset();
+      elementsOut.reset();
+      sampledElements.reset();
+      sampledAllocatedBytes.reset();
+      runCount = 0;
+    }
+  }
+
+  /** The calling thread's batch. */
+  Batch batch() {
+    return batches.get();
+  }
+
+  /** Adds the calling thread's batched counts to the totals. */
+  void flush() {
+    batches.get().flush();
+  }
+
+  /** Marks a stage that emits every element it receives, so only its input is counted. */
+  void passThrough() {
+    passThrough = true;
+  }
+
+  static long allocatedBytes() {
+    return THREADS == null ? 0 : THREADS.getCurrentThreadAllocatedBytes();
+  }
+
+  /** Keeps the run's cost per element in the reservoir, replacing a random run once it is full. */
+  private void recordRun(final int generation, final int elements, final long nanos,
+      final long allocatedBytes) {
+    synchronized (runs) {
+      if (generation != this.generation) {
+        return;
+      }
+      sampledElements.add(elements);
+      sampledAllocatedBytes.add(allocatedBytes);
+      final long run = runCount++;
+      final long slot = run < RESERVOIR ? run : ThreadLocalRandom.current().nextLong(run + 1);
+      if (slot < RESERVOIR) {
+        runs[(int) slot] = (double) nanos / elements;
+      }
+    }
+  }
+
+  /**
+   * The counts of one thread. Runs are started by a countdown rather than a random draw; each
+   * thread starts it at a random offset, so threads and periodic inputs don't sample in step.
+   */
+  static final class Batch {
+    private final StageMetrics metrics;
+    private int generation;
+    private long in;
+    private long out;
+    private int countdown;
+    private int running;
+    private long runNanos;
+    private long runBytes;
+    private long runTimerNanos;
+
+    private Batch(final StageMetrics metrics) {
+      this.metrics = metrics;
+      this.generation = metrics.generation;
+      this.countdown = 1 + ThreadLocalRandom.current().nextInt(metrics.sampleEvery * RUN);
+    }
+
+    /**
+     * Counts one element in; true if it is to be sampled, in which case the caller times it and
+     * passes the result to {@link #recordSample}.
+     */
+    boolean countIn() {
+      discardIfReset();
+      in++;
+      if (running > 0) {
+        return true;
+      }
+      if (--countdown > 0) {
+        return false;
+      }
+      countdown = (metrics.sampleEvery - 1) * RUN + 1;
+      flush();
+      running = RUN;
+      return true;
+    }
+
+    void countIn(final long elements) {
+      discardIfReset();
+      in += elements;
+    }
+
+    void countOut() {
+      out++;
+    }
+
+    /** Adds one timed element to the run, and the time of an empty region right after it. */
+    void recordSample(final long nanos, final long allocatedBytes) {
+      runNanos += nanos;
+      runBytes += allocatedBytes;
+      final long start = System.nanoTime();
+      runTimerNanos += System.nanoTime() - start;
+      if (--running == 0) {
+        endRun(RUN);
+      }
+    }
+
+    /** Adds the counts to the totals, along with a run the stream ended part way through. */
+    void flush() {
+      discardIfReset();
+      if (running > 0 && running < RUN) {
+        endRun(RUN - running);
+        running = 0;
+      }
+      if (in != 0) {
+        metrics.elementsIn.add(in);
+        in = 0;
+      }
+      if (out != 0) {
+        metrics.elementsOut.add(out);
+        out = 0;
+      }
+    }
+
+    private void endRun(final int elements) {
+      metrics.recordRun(generation, elements, runNanos - runTimerNanos, runBytes);
+      runNanos = 0;
+      runTimerNanos = 0;
+      runBytes = 0;
+    }
+
+    private void discardIfReset() {
+      final int current = metrics.generation;
+      if (generation != current) {
+        generation = current;
+        in = 0;
+        out = 0;
+        running = 0;
+        runNanos = 0;
+        runTimerNanos = 0;
+        runBytes = 0;
+      }
+    }
+  }
+
+  private static com.sun.management.ThreadMXBean threads() {
+    return ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads
+        && threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled()
+        ? threads : null;
+  }
+
+}
@@ -0,0 +1,20 @@
+package com.java.functional.ch05_designing_lambda;
+
+/** The JMX view of one {@link StageMetrics}. */
+public interface StageMetricsMBean {
+  String getPipeline();
+
+  String getStage();
+
+  long getElementsIn();
+
+  long getElementsOut();
+
+  double getSelectivity();
+
+  long getEstimatedNanos();
+
+  long getEstimatedAllocatedBytes();
+
+  void reset();
+}
@@ -0,0 +1,317 @@
+package com.java.functional.ingest;
+
+import com.java.functional.ch03_strings_comparators_filters.Person;
+import com.java.functional.ch05_designing_lambda.Asset;
+import com.java.functional.ch05_designing_lambda.Asset.AssetType;
+import com.java.functional.ch05_designing_lambda.AssetBook;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A compact little-endian binary format for reloading ingested data quickly. A file starts with
+ * a four-byte magic number, a format version and the row count, followed by the rows:
+ * <ul>
+ *   <li>assets: one {@code byte} type ordinal and one {@code int} value per row;
+ *   <li>people: the age as a zig-zag varint, the name's byte length as a varint and the name's
+ *       UTF-8 bytes.
+ * </ul>
+ * The row count is only written once every row has been; if writing fails, the file is deleted.
+ * Readers map the file in chunks and check that its length matches the row count and that each
+ * asset type ordinal is known.
+ */
+public final class BinaryFormat {
+  private static final int ASSETS_MAGIC = 0x54535341;
+  private static final int PEOPLE_MAGIC = 0x4e535250;
+  private static final int VERSION = 1;
+  private static final int HEADER_BYTES = 16;
+  private static final int BUFFER_BYTES = 1 << 20;
+  private static final int MAX_VARINT_BYTES = 5;
+  private static final int CHUNK_BYTES = 64 << 20;
+
+  private BinaryFormat() {
+  }
+
+  public static long writeAssets(final Path file, final Stream<Asset> assets) {
+    try (Writer writer = new Writer(file, ASSETS_MAGIC)) {
+      assets.forEachOrdered(asset -> {
+        writer.ensure(Byte.BYTES + Integer.BYTES);
+        writer.buffer.put((byte) asset.getType().ordinal()).putInt(asset.getValue());
+        writer.rows++;
+      });
+      writer.finish();
+      return writer.rows;
+    }
+  }
+
+  public static long writePeople(final Path file, final Stream<Person> people) {
+    try (Writer writer = new Writer(file, PEOPLE_MAGIC)) {
+      people.forEachOrdered(person -> {
+        final byte[] name = person.getName().getBytes(StandardCharsets.UTF_8);
+        writer.ensure(2 * MAX_VARINT_BYTES + name.length);
+        putVarint(writer.buffer, (person.getAge() << 1) ^ (person.getAge() >> 31));
+        putVarint(writer.buffer, name.length);
+        writer.buffer.put(name);
+        writer.rows++;
+      });
+      writer.finish();
+      return writer.rows;
+    }
+  }
+
+  public static AssetBook readAssets(final Path file) {
+    final Input input = Input.open(file, ASSETS_MAGIC);
+    final int rows = Math.toIntExact(input.rows);
+    final long rowBytes = Byte.BYTES + Integer.BYTES;
+    if (input.size - HEADER_BYTES != rows * rowBytes) {
+      throw new IllegalStateException(file + " has " + (input.size - HEADER_BYTES)
+          + " bytes of rows, not the " + rows * rowBytes + " that " + rows + " rows take");
+    }
+    final AssetType[] types = AssetType.values();
+    final AssetBook book = new AssetBook(rows);
+    for (int i = 0; i < rows; ) {
+      // the rows wholly inside the current chunk, then one that may straddle the next
+      final ByteBuffer chunk = input.current;
+      for (int end = i + (int) Math.min(rows - i, chunk.remaining() / rowBytes); i < end; i++) {
+        book.add(assetType(types, chunk.get(), i, input), chunk.getInt());
+      }
+      if (i < rows) {
+        book.add(assetType(types, input.get(), i, input), input.getInt());
+        i++;
+      }
+    }
+    return book;
+  }
+
+  private static AssetType assetType(final AssetType[] types, final byte ordinal, final int row,
+      final Input input) {
+    if (ordinal < 0 || ordinal >= types.length) {
+      throw new IllegalStateException("Unknown asset type " + ordinal + " in row " + row
+          + " at offset " + (input.position() - 1) + " of " + input.file);
+    }
+    return types[ordinal];
+  }
+
+  /** Decodes people lazily, in file order. */
+  public static Stream<Person> readPeople(final Path file) {
+    final Input input = Input.open(file, PEOPLE_MAGIC);
+    final long rows = input.rows;
+    if (rows < 0 || rows > (input.size - HEADER_BYTES) / 2) {
+      throw new IllegalStateException(file + " is too short for its " + rows + " rows");
+    }
+    if (rows == 0 && input.size != HEADER_BYTES) {
+      throw new IllegalStateException(file + " has bytes after its header but no rows");
+    }
+    return StreamSupport.stream(new Spliterators.AbstractSpliterator<Person>(rows,
+        Spliterator.ORDERED | Spliterator.SIZED | Spliterator.NONNULL) {
+      private long remaining = rows;
+      private byte[] name = new byte[64];
+
+      @Override
+      public boolean tryAdvance(final Consumer<? super Person> action) {
+        if (remaining == 0) {
+          return false;
+        }
+        remaining--;
+        final int zigZag = getVarint(input);
+        final int age = (zigZag >>> 1) ^ -(zigZag & 1);
+        final int length = getVarint(input);
+        if (length < 0) {
+          throw new IllegalStateException("Negative name length at " + input.position());
+        }
+        if (length > name.length) {
+          name = new byte[length];
+        }
+        input.get(name, length);
+        if (remaining == 0 && input.position() != input.size) {
+          throw new IllegalStateException(file + " has " + (input.size - input.position())
+              + " bytes after its last row");
+        }
+        action.accept(new Person(new String(name, 0, length, StandardCharsets.UTF_8), age));
+        return true;
+      }
+    }, false);
+  }
+
+  private static void putVarint(final ByteBuffer buffer, int value) {
+    while ((value & ~0x7F) != 0) {
+      buffer.put((byte) (value & 0x7F | 0x80));
+      value >>>= 7;
+    }
+    buffer.put((byte) value);
+  }
+
+  private static int getVarint(final Input input) {
+    int value = 0;
+    for (int shift = 0; shift < 35; shift += 7) {
+      final byte b = input.get();
+      value |= (b & 0x7F) << shift;
+      if (b >= 0) {
+        return value;
+      }
+    }
+    throw new IllegalStateException("Malformed varint at " + input.position());
+  }
+
+  /**
+   * A file mapped in chunks of up to {@value #CHUNK_BYTES} bytes, so files over 2 GB can be read.
+   * Values that straddle two chunks are read a byte at a time.
+   */
+  private static final class Input {
+    private final Path file;
+    private final long size;
+    private final List<MappedByteBuffer> chunks = new ArrayList<>();
+    private int chunk;
+    private ByteBuffer current;
+    private long rows;
+
+    private Input(final Path file, final long size) {
+      this.file = file;
+      this.size = size;
+    }
+
+    /** Maps the file and checks its header; the row count is left in {@link #rows}. */
+    static Input open(final Path file, final int magic) {
+      try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+        final Input input = new Input(file, channel.size());
+        for (long start = 0; start < input.size; start += CHUNK_BYTES) {
+          input.chunks.add(channel.map(FileChannel.MapMode.READ_ONLY, start,
+              Math.min(CHUNK_BYTES, input.size - start)));
+        }
+        if (input.size < HEADER_BYTES) {
+          throw notThisKind(file);
+        }
+        input.current = input.chunks.get(0).order(ByteOrder.LITTLE_ENDIAN);
+        if (input.getInt() != magic || input.getInt() != VERSION) {
+          throw notThisKind(file);
+        }
+        input.rows = input.getInt() & 0xFFFF_FFFFL | (long) input.getInt() << 32;
+        return input;
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+
+    long position() {
+      return (long) chunk * CHUNK_BYTES + current.position();
+    }
+
+    byte get() {
+      if (!current.hasRemaining()) {
+        next();
+      }
+      return current.get();
+    }
+
+    int getInt() {
+      if (current.remaining() >= Integer.BYTES) {
+        return current.getInt();
+      }
+      int value = 0;
+      for (int i = 0; i < Integer.BYTES; i++) {
+        value |= (get() & 0xFF) << (8 * i);
+      }
+      return value;
+    }
+
+    void get(final byte[] target, final int length) {
+      for (int copied = 0; copied < length; ) {
+        if (!current.hasRemaining()) {
+          next();
+        }
+        final int count = Math.min(length - copied, current.remaining());
+        current.get(target, copied, count);
+        copied += count;
+      }
+    }
+
+    private void next() {
+      if (chunk + 1 == chunks.size()) {
+        throw new IllegalStateException(file + " ends part way through a row");
+      }
+      current = chunks.get(++chunk).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static IllegalArgumentException notThisKind(final Path file) {
+      return new IllegalArgumentException("Not a version " + VERSION + " file of this kind: "
+          + file);
+    }
+  }
+
+  private static final class Writer implements AutoCloseable {
+    private final Path file;
+    private final FileChannel channel;
+    private final ByteBuffer buffer =
+        ByteBuffer.allocateDirect(BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+    private long rows;
+    private boolean finished;
+
+    private Writer(final Path file, final int magic) {
+      this.file = file;
+      try {
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+      buffer.putInt(magic).putInt(VERSION).putLong(0);
+    }
+
+    private void ensure(final int bytes) {
+      if (buffer.remaining() < bytes) {
+        flush();
+      }
+    }
+
+    private void flush() {
+      try {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+          channel.write(buffer);
+        }
+        buffer.clear();
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+
+    /** Writes the remaining rows and then the row count, which makes the file valid. */
+    private void finish() {
+      flush();
+      try {
+        final ByteBuffer count = ByteBuffer.allocate(Long.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        channel.write(count.putLong(rows).flip(), HEADER_BYTES - Long.BYTES);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+      finished = true;
+    }
+
+    /** Deletes the file unless it was finished. */
+    @Override
+    public void close() {
+      try {
+        channel.close();
+        if (!finished) {
+          Files.deleteIfExists(file);
+        }
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+  }
+}
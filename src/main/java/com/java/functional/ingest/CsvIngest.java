@@ -0,0 +1,304 @@
+package com.java.functional.ingest;
+
+import com.java.functional.ch03_strings_comparators_filters.Person;
+import com.java.functional.ch05_designing_lambda.Asset;
+import com.java.functional.ch05_designing_lambda.Asset.AssetType;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Reads large CSV files as a stream of records. The file is split into byte ranges that end on
+ * line boundaries, each range is memory-mapped, and, in {@link #parallel()} mode, the ranges are
+ * parsed concurrently. Fields are parsed straight from the mapped bytes; only the
+ * {@code String}s a record keeps are allocated.
+ *
+ * <pre>
+ * CsvIngest.csv().parallel().assets(path).collect(Collectors.groupingBy(Asset::getType));
+ * </pre>
+ *
+ * <p>Lines end with {@code \n} or {@code \r\n} and fields are separated by commas; quoting is
+ * not supported. Assets are {@code type,value} rows and people are {@code name,age} rows.
+ */
+public final class CsvIngest {
+  private static final int MAX_CHUNK = 64 << 20;
+
+  private final boolean header;
+  private final boolean parallel;
+  private final int chunkBytes;
+
+  private CsvIngest(final boolean header, final boolean parallel, final int chunkBytes) {
+    this.header = header;
+    this.parallel = parallel;
+    this.chunkBytes = chunkBytes;
+  }
+
+  /** Expects a header line and reads sequentially. */
+  public static CsvIngest csv() {
+    return new CsvIngest(true, false, 0);
+  }
+
+  public CsvIngest header(final boolean header) {
+    return new CsvIngest(header, parallel, chunkBytes);
+  }
+
+  public CsvIngest parallel() {
+    return new CsvIngest(header, true, chunkBytes);
+  }
+
+  /** The approximate size of each byte range; by default a few ranges per core, up to 64 MB. */
+  public CsvIngest chunkBytes(final int chunkBytes) {
+    if (chunkBytes < 1 || chunkBytes > MAX_CHUNK) {
+      throw new IllegalArgumentException("chunkBytes must be between 1 and 64 MB: " + chunkBytes);
+    }
+    return new CsvIngest(header, parallel, chunkBytes);
+  }
+
+  @FunctionalInterface
+  public interface RowParser<T> {
+    T parse(Row row);
+  }
+
+  public Stream<Asset> assets(final Path csv) {
+    final AssetType[] types = AssetType.values();
+    return read(csv, row -> new Asset(row.enumField(0, types), row.intField(1)));
+  }
+
+  public Stream<Person> people(final Path csv) {
+    return read(csv, row -> new Person(row.stringField(0), row.intField(1)));
+  }
+
+  public <T> Stream<T> read(final Path csv, final RowParser<? extends T> parser) {
+    final List<Chunk> chunks = map(csv);
+    return (parallel ? chunks.parallelStream() : chunks.stream())
+        .flatMap(chunk -> StreamSupport.stream(
+            new ChunkSpliterator<T>(chunk, parser, header && chunk.offset() == 0), false));
+  }
+
+  /** A mapped byte range of the file, starting {@code offset} bytes in. */
+  private record Chunk(long offset, MappedByteBuffer bytes) {
+  }
+
+  private List<Chunk> map(final Path csv) {
+    try (FileChannel channel = FileChannel.open(csv, StandardOpenOption.READ)) {
+      final long size = channel.size();
+      final long target = chunkBytes > 0 ? chunkBytes : Math.min(MAX_CHUNK,
+          Math.max(1 << 20, size / (4L * Runtime.getRuntime().availableProcessors())));
+      final List<Chunk> chunks = new ArrayList<>();
+      final ByteBuffer probe = ByteBuffer.allocate(4096);
+      long start = 0;
+      while (start < size) {
+        long end = Math.min(size, start + target);
+        end = end == size ? end : nextLine(channel, end, size, probe);
+        if (end - start > Integer.MAX_VALUE) {
+          throw new IllegalStateException("Line longer than 2 GB near offset " + start);
+        }
+        chunks.add(new Chunk(start, channel.map(FileChannel.MapMode.READ_ONLY, start,
+            end - start)));
+        start = end;
+      }
+      return chunks;
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /** The offset just after the first {@code \n} at or after {@code position}. */
+  private static long nextLine(final FileChannel channel, long position, final long size,
+      final ByteBuffer probe) throws IOException {
+    while (position < size) {
+      probe.clear();
+      final int read = channel.read(probe, position);
+      for (int i = 0; i < read; i++) {
+        if (probe.get(i) == '\n') {
+          return position + i + 1;
+        }
+      }
+      position += Math.max(read, 0);
+    }
+    return size;
+  }
+
+  private static final class ChunkSpliterator<T> extends Spliterators.AbstractSpliterator<T> {
+    private final ByteBuffer bytes;
+    private final RowParser<? extends T> parser;
+    private final Row row;
+    private int position;
+
+    ChunkSpliterator(final Chunk chunk, final RowParser<? extends T> parser,
+        final boolean skipHeader) {
+      super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+      this.bytes = chunk.bytes();
+      this.parser = parser;
+      this.row = new Row(bytes, chunk.offset());
+      if (skipHeader) {
+        position = row.split(0);
+      }
+    }
+
+    @Override
+    public boolean tryAdvance(final Consumer<? super T> action) {
+      final int limit = bytes.limit();
+      while (position < limit) {
+        final int next = row.split(position);
+        position = next;
+        if (row.fieldCount() > 1 || row.length(0) > 0) {
+          action.accept(parser.parse(row));
+          return true;
+        }
+      }
+      return false;
+    }
+  }
+
+  /**
+   * One line of the file; only valid while the parser is running. Its parse errors give the
+   * line's byte offset in the file, since ranges parsed in parallel don't know their line numbers.
+   */
+  public static final class Row {
+    private final ByteBuffer bytes;
+    private final long chunkOffset;
+    private int[] starts = new int[8];
+    private int[] ends = new int[8];
+    private int fields;
+    private int lineStart;
+    private byte[] scratch = new byte[64];
+
+    private Row(final ByteBuffer bytes, final long chunkOffset) {
+      this.bytes = bytes;
+      this.chunkOffset = chunkOffset;
+    }
+
+    /** The byte offset of the line in the file. */
+    public long offset() {
+      return chunkOffset + lineStart;
+    }
+
+    public int fieldCount() {
+      return fields;
+    }
+
+    public int intField(final int field) {
+      final long value = longField(field);
+      if (value != (int) value) {
+        throw new NumberFormatException("Out of int range: " + stringField(field) + at());
+      }
+      return (int) value;
+    }
+
+    public long longField(final int field) {
+      int i = start(field);
+      final int end = ends[field];
+      final boolean negative = i < end && bytes.get(i) == '-';
+      if (negative) {
+        i++;
+      }
+      if (i == end) {
+        throw new NumberFormatException("Not a number: '" + stringField(field) + "'" + at());
+      }
+      long value = 0;
+      for (; i < end; i++) {
+        final int digit = bytes.get(i) - '0';
+        if (digit < 0 || digit > 9) {
+          throw new NumberFormatException("Not a number: '" + stringField(field) + "'" + at());
+        }
+        try {
+          value = Math.addExact(Math.multiplyExact(value, 10), negative ? -digit : digit);
+        } catch (ArithmeticException e) {
+          throw new NumberFormatException("Out of long range: " + stringField(field) + at());
+        }
+      }
+      return value;
+    }
+
+    public String stringField(final int field) {
+      final int start = start(field);
+      final int length = ends[field] - start;
+      if (length > scratch.length) {
+        scratch = new byte[Math.max(length, scratch.length * 2)];
+      }
+      bytes.get(start, scratch, 0, length);
+      return new String(scratch, 0, length, StandardCharsets.UTF_8);
+    }
+
+    /** The constant whose name matches the field's ASCII bytes, without building a String. */
+    public <E extends Enum<E>> E enumField(final int field, final E[] constants) {
+      final int start = start(field);
+      final int length = ends[field] - start;
+      for (E constant : constants) {
+        final String name = constant.name();
+        if (name.length() == length && matches(name, start)) {
+          return constant;
+        }
+      }
+      throw new IllegalArgumentException("Unknown value: '" + stringField(field) + "'" + at());
+    }
+
+    private boolean matches(final String name, final int start) {
+      for (int i = 0; i < name.length(); i++) {
+        if (bytes.get(start + i) != name.charAt(i)) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    private int start(final int field) {
+      if (field < 0 || field >= fields) {
+        throw new IndexOutOfBoundsException("Row has " + fields + " fields, not " + (field + 1)
+            + at());
+      }
+      return starts[field];
+    }
+
+    private String at() {
+      return " in the line at byte offset " + offset();
+    }
+
+    private int length(final int field) {
+      return ends[field] - starts[field];
+    }
+
+    /** Records the fields of the line at {@code position}; returns where the next line starts. */
+    private int split(final int position) {
+      final int limit = bytes.limit();
+      fields = 0;
+      lineStart = position;
+      int fieldStart = position;
+      int i = position;
+      for (; i < limit; i++) {
+        final byte b = bytes.get(i);
+        if (b == ',') {
+          addField(fieldStart, i);
+          fieldStart = i + 1;
+        } else if (b == '\n') {
+          break;
+        }
+      }
+      addField(fieldStart, i > fieldStart && bytes.get(i - 1) == '\r' ? i - 1 : i);
+      return Math.min(limit, i + 1);
+    }
+
+    private void addField(final int start, final int end) {
+      if (fields == starts.length) {
+        starts = Arrays.copyOf(starts, fields * 2);
+        ends = Arrays.copyOf(ends, fields * 2);
+      }
+      starts[fields] = start;
+      ends[fields++] = end;
+    }
+  }
+}
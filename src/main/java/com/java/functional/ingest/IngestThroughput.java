@@ -0,0 +1,100 @@
+package com.java.functional.ingest;
+
+import com.java.functional.ch03_strings_comparators_filters.Person;
+import com.java.functional.ch05_designing_lambda.Asset;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collectors;
+
+public class IngestThroughput {
+  public static void main(String[] args) throws IOException {
+    final int rows = args.length > 0 ? Integer.parseInt(args[0]) : 5_000_000;
+    final Path assetsCsv = Files.createTempFile("assets", ".csv");
+    final Path peopleCsv = Files.createTempFile("people", ".csv");
+    final Path assetsBin = Files.createTempFile("assets", ".bin");
+    final Path peopleBin = Files.createTempFile("people", ".bin");
+    try {
+      generateAssets(assetsCsv, rows);
+      generatePeople(peopleCsv, rows);
+      BinaryFormat.writeAssets(assetsBin, CsvIngest.csv().assets(assetsCsv));
+      BinaryFormat.writePeople(peopleBin, CsvIngest.csv().people(peopleCsv));
+      System.out.println(String.format("%d rows: assets %d MB csv / %d MB binary, "
+          + "people %d MB csv / %d MB binary%n", rows, Files.size(assetsCsv) >> 20,
+          Files.size(assetsBin) >> 20, Files.size(peopleCsv) >> 20, Files.size(peopleBin) >> 20));
+
+      for (int run = 0; run < 3; run++) {
+        final long lines = time("Files.lines + split (assets)", rows, path -> {
+          try (var lineStream = Files.lines(path)) {
+            return lineStream.skip(1).map(line -> line.split(","))
+                .mapToLong(fields -> Integer.parseInt(fields[1])).sum();
+          } catch (IOException e) {
+            throw new UncheckedIOException(e);
+          }
+        }, assetsCsv);
+        final long sequential = time("CsvIngest (assets)", rows,
+            path -> CsvIngest.csv().assets(path).mapToLong(Asset::getValue).sum(), assetsCsv);
+        final long parallel = time("CsvIngest.parallel() (assets)", rows,
+            path -> CsvIngest.csv().parallel().assets(path).mapToLong(Asset::getValue).sum(),
+            assetsCsv);
+        final long binary = time("BinaryFormat.readAssets", rows,
+            path -> BinaryFormat.readAssets(path).total(), assetsBin);
+        final long people = time("CsvIngest.parallel() (people)", rows,
+            path -> CsvIngest.csv().parallel().people(path).mapToLong(Person::getAge).sum(),
+            peopleCsv);
+        final long peopleBinary = time("BinaryFormat.readPeople", rows,
+            path -> BinaryFormat.readPeople(path).mapToLong(Person::getAge).sum(),
+            peopleBin);
+        System.out.println(String.format("Run %d consistent: %b%n", run,
+            lines == sequential && sequential == parallel && parallel == binary
+                && people == peopleBinary));
+      }
+    } finally {
+      for (Path path : List.of(assetsCsv, peopleCsv, assetsBin, peopleBin)) {
+        Files.deleteIfExists(path);
+      }
+    }
+  }
+
+  static void generateAssets(final Path csv, final int rows) throws IOException {
+    final Random random = new Random(42);
+    try (BufferedWriter writer = Files.newBufferedWriter(csv)) {
+      writer.write("type,value\n");
+      for (int i = 0; i < rows; i++) {
+        writer.write(random.nextBoolean() ? "BOND," : "STOCK,");
+        writer.write(Integer.toString(random.nextInt(100_000)));
+        writer.write('\n');
+      }
+    }
+  }
+
+  static void generatePeople(final Path csv, final int rows) throws IOException {
+    final Random random = new Random(42);
+    final List<String> names = random.ints(1000, 0, Integer.MAX_VALUE)
+        .mapToObj(i -> (char) ('A' + i % 26) + Integer.toString(i, 36))
+        .collect(Collectors.toList());
+    try (BufferedWriter writer = Files.newBufferedWriter(csv)) {
+      writer.write("name,age\n");
+      for (int i = 0; i < rows; i++) {
+        writer.write(names.get(random.nextInt(names.size())));
+        writer.write(',');
+        writer.write(Integer.toString(random.nextInt(100)));
+        writer.write('\n');
+      }
+    }
+  }
+
+  private static long time(final String label, final int rows,
+      final ToLongFunction<Path> ingest, final Path path) {
+    final long start = System.nanoTime();
+    final long result = ingest.applyAsLong(path);
+    final long nanos = System.nanoTime() - start;
+    System.out.println(String.format("%-36s %8.2f M rows/s", label, rows * 1e3 / nanos));
+    return result;
+  }
+}